@@ -2,10 +2,14 @@ import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.ImageIcon;
+import javax.swing.SwingWorker;
 import java.awt.Graphics;
-import java.awt.Component;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.Toolkit;
 import java.awt.Dimension;
@@ -14,30 +18,42 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.ObjectInputStream;
-import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
 
 /**
-    Class that represents the actual game board, as well as controls the logic ( rules ) of the game.
+    Class that represents the actual game board. The logic ( rules ) of the game are controlled by its <code>GameState</code>.
+    
+    The board is a single component. Every stone is painted straight from the game state, and the mouse is mapped to
+    points of the board arithmetically, so no component is needed for each point or stone.
     @author Dylan Foster
     @version 5/16/11
 */
-public class Board extends JComponent implements Serializable
+public class Board extends JComponent implements MouseListener, MouseMotionListener, Serializable
 {
 
     public static final int SIZE_OF_SQUARE = 30, LARGE_BOARD = 19, MEDIUM_BOARD = 13, SMALL_BOARD = 9;
     public static final boolean TURN_PASSED = true, TURN_NOT_PASSED = false;
+    
+    //Time the computer opponent thinks about each move, in milliseconds.
+    public static final int COMPUTER_THINKING_TIME = 5000;
 
-    private BoardLocation[][] board;
-    private Player.Color turn;
-    private ArrayList<Group> groups;
+    private GameState state;
     private transient BufferedImage boardImage;
-    private boolean lastTurnPassed;
-    private int whiteScore;
-    private int blackScore;
-    private BoardLocation previousWhiteMove;
-    private BoardLocation previousBlackMove;
+    private transient Piece[] pieces;
+    private transient JPopupMenu popupMenu;
+    private transient int hoverPoint;
+    private transient MoveJournal journal;
+    private transient JFrame markingFrame;
+    private transient JLabel markingLabel;
+    private transient LadderReader ladderReader;
+    private transient Player.Color computerColor;
+    private transient MonteCarloSearch search;
+    private transient SwingWorker<Integer, Void> computerMove;
     private String saveName;
     
     /**
@@ -47,67 +63,47 @@ public class Board extends JComponent implements Serializable
     public Board ( int boardSize )
     {
         
-        //Sets first turn to be Black's. Black always goes first in Go.
-        this.turn = Player.Color.BLACK;
+        //Creates the state of a new game, which applies the rules of the game.
+        this( new GameState( boardSize ) );
+        
+    }
+    
+    /**
+        Constructor. Creates new instance of a Board showing the given game, such as one read from a save file.
+        @param GameState Game to show.
+    */
+    public Board ( GameState inState )
+    {
         
-        //Creates new array of BoardLocations to serve as a Goban.
-        this.board = new BoardLocation[ boardSize ][ boardSize ];
+        this.state = inState;
         
         //Sets size of component.
-        this.setSize( boardSize * SIZE_OF_SQUARE + Go.BORDER_BUFFER, boardSize * SIZE_OF_SQUARE + Go.BORDER_BUFFER );
-        
-        //Creates a blank ArrayList of groups, as Board does not currently have any Groups on it.
-        this.groups = new ArrayList<Group>();
+        this.setSize( inState.getBoardSize() * SIZE_OF_SQUARE + Go.BORDER_BUFFER, inState.getBoardSize() * SIZE_OF_SQUARE + Go.BORDER_BUFFER );
         
-        //Cycling through all columns of array.
-        for ( int i = 0; i < this.board.length; i++ )
-        {
+        //Adding mouse listeners, which handle every point of the board.
+        this.addMouseListener( this );
+        this.addMouseMotionListener( this );
             
-            //Cycling through all rows of array.
-           for ( int j = 0; j < this.board[ i ].length; j++ )
-           {
-               
-               BoardLocation.Type type;
-               
-               //Determines the Type of this BoardLocation. This effects the BoardLocation's liberties.
-               if ( i == 0 && j == 0 ) { type = BoardLocation.Type.TOP_LEFT; }
-               else if ( i == boardSize - 1 && j == 0 ) { type = BoardLocation.Type.TOP_RIGHT; }
-               else if ( i == boardSize - 1 && j == boardSize - 1 ) { type = BoardLocation.Type.BOTTOM_RIGHT; }
-               else if ( i == 0 && j == boardSize - 1 ) { type = BoardLocation.Type.BOTTOM_LEFT; }
-               else if ( i == 0 ) { type = BoardLocation.Type.LEFT; }
-               else if ( j == 0 ) { type = BoardLocation.Type.TOP; }
-               else if ( i == boardSize - 1 ) { type = BoardLocation.Type.RIGHT; }
-               else if ( j == boardSize - 1 ) { type = BoardLocation.Type.BOTTOM; }
-               else { type = BoardLocation.Type.MAIN; }
-               
-               //Creates a new BoardLocation at the correct location, size and type.
-               this.board[ i ][ j ] = new BoardLocation( i * SIZE_OF_SQUARE + Go.BORDER_BUFFER, j * SIZE_OF_SQUARE + Go.BORDER_BUFFER, SIZE_OF_SQUARE, type );
-               
-               //Adds BoardLocation to this Board component.
-               this.add( this.board[ i ][ j ] );
+        //Loads images, and creates popup menu.
+        this.initialize();
 
-           }
+    }
 
-        }
+    /**
+        Creates a <code>Board</code> for a new game of the given size. The computer plays white if the player chose to play
+        against it in the new game dialog.
+        @param int Size of board.
+        @return Board
+    */
+    public static Board createNewGame ( int boardSize )
+    {
         
-        File goban;
+        Board board = new Board( boardSize );
         
-        //Sets file to read to correct image, based on given board size.
-        if ( this.board.length == 19 ) { goban = new File( "19x19goban.png" ); }
-        else if ( this.board.length == 13 ) { goban = new File( "13x13goban.png" ); }
-        else { goban = new File( "9x9goban.png" ); }
+        if ( NewGameDialog.isComputerOpponentChosen() ) { board.setComputerOpponent( Player.Color.WHITE ); }
+        
+        return board;
         
-        //Reads image of board and stores it in an instance variable.
-        try { this.boardImage = ImageIO.read( goban ); }
-        catch ( IOException e )
-        {
-            
-            //Cannot find image of the board. Cannot continue.
-            System.out.println( "Board image not found." );
-            System.exit( 1 );
-            
-        }
-
     }
 
     /**
@@ -121,6 +117,30 @@ public class Board extends JComponent implements Serializable
         //Draws the image of this Board.
         g.drawImage( this.boardImage, Go.BORDER_BUFFER - 1, Go.BORDER_BUFFER - 1, null );
 
+        Rectangle clip = g.getClipBounds();
+        
+        //Cycling through all points of the game.
+        for ( int point = 0; point < this.state.getPointCount(); point++ )
+        {
+            
+            Player.Color color = this.state.getColorAt( point );
+            
+            //Skipping empty points, and points outside of the area being repainted.
+            if ( color == null || ( clip != null && !clip.intersects( this.getPointBounds( point ) ) ) ) { continue; }
+            
+            //Paints solid piece of the stone's color. Stones marked dead at the end of the game are translucent.
+            this.getPiece( color, this.state.isDead( point ) ).paint( g, this.getPointX( point ), this.getPointY( point ) );
+            
+        }
+        
+        //Paints a translucent piece of the current player where the mouse is, if a move there would be valid.
+        if ( this.hoverPoint != GameState.NO_POINT )
+        {
+            
+            this.getPiece( this.state.getTurn(), Piece.IS_TRANSPARENT ).paint( g, this.getPointX( this.hoverPoint ), this.getPointY( this.hoverPoint ) );
+            
+        }
+        
     }
     
     /**
@@ -130,127 +150,118 @@ public class Board extends JComponent implements Serializable
     public void switchTurns ( boolean inTurnPassed )
     {
         
-        //Checks if the last turn was passed, and this turn was passed.
-        if ( this.lastTurnPassed && inTurnPassed )
+        //Removing translucent piece, as it was for the previous player.
+        this.setHoverPoint( GameState.NO_POINT );
+        
+        //Switches turns in the game state. Two consecutive turns passed ( one from each player ) marks the end of the game.
+        boolean gameEnded = this.state.switchTurns( inTurnPassed );
+        
+        //Saving the move in the game's save file, now that the turn has changed, so the file's header names the next player.
+        this.appendToJournal( this.state.getMove( this.state.getMoveCount() - 1 ) );
+        
+        if ( gameEnded )
         {
             
-            //Two consecutive turns passed ( one from each player ) marks the end of the game.
-            
-            //Determines the score, and ends the game.
-            this.determineScore();
-            this.end();
+            //Lets the players mark dead stones, before showing the score.
+            this.startMarking();
             
             //Exit method.
             return;
             
         }
         
-        //Sets if the last turn was passed to the given value.
-        this.lastTurnPassed = inTurnPassed;
-        
-        //Changes the turn to other player.
-        if ( this.turn == Player.Color.BLACK ) { this.turn = Player.Color.WHITE; }
-        else { this.turn = Player.Color.BLACK; }
+        //Letting the computer choose its move, if it is its turn.
+        this.startComputerMove();
         
-        //Refreshes all piece's liberties.
-        //This ensures any pieces that were captured by a move during the previous turn are removed from the board
-        //before the next turn.
-        for ( int i = 0; i < this.groups.size(); i++ ) { this.groups.get( i ).calculateLiberties( Group.NOT_INITIAL_CHECK ); }
-
     }
     
     /**
-        Adds a <code>Piece</code> to the board at the given location.
-        @param BoardLocation Location to add a peice.
+        Adds a <code>Piece</code> to the board at the given point. The move is saved once the turn is switched.
+        @param int Point to add a peice.
         @return void
     */
-    public void addPieceAt ( BoardLocation inBoardLocation )
+    public void addPieceAt ( int point )
     {
         
-        //Sets the last move to the given location.
-        if ( this.turn == Player.Color.BLACK ) { this.previousBlackMove = inBoardLocation; }
-        else { this.previousWhiteMove = inBoardLocation; }
+        //Places a stone at the point in the game state, and repaints the point.
+        this.state.addStoneAt( point );
+        this.repaintPoint( point );
         
-        ArrayList<Group> neighbouringGroups = new ArrayList<Group>();
+        long[] capturedStones = this.state.getCapturedStones();
         
-        //Getting all friendly groups that contain a piece that is in one of the four adjacent BoardLocations.
-        for ( int i = 0; i < this.groups.size(); i++ )
+        //Repaints the points of any stones captured by this move.
+        for ( int i = 0; i < capturedStones.length; i++ )
         {
             
-            if ( this.groups.get( i ).libertiesContain( inBoardLocation ) && this.groups.get( i ).getColor() == inBoardLocation.getPiece().getColor() )
+            for ( long bits = capturedStones[ i ]; bits != 0; bits &= bits - 1 )
             {
                 
-                neighbouringGroups.add( this.groups.get( i ) );
+                this.repaintPoint( ( i << 6 ) + Long.numberOfTrailingZeros( bits ) );
                 
             }
             
         }
         
-        //Checking if no groups ( and therefore, no pieces ) are adjacent to the given location.
-        if ( neighbouringGroups.size() == 0 )
-        {
-            
-            //Creating a new Group with this Location, as it cannot be added to another group.
-            this.groups.add( new Group( inBoardLocation ) );
-            
-        }
-        //Checking if one group is neighbouring.
-        else if ( neighbouringGroups.size() == 1 )
-        {
-            
-            //Add piece to friendly adjacent group.
-            neighbouringGroups.get( 0 ).add( inBoardLocation );
-            
-        }
-        //More than one neighbouring friendly groups...
-        else
-        {
-            
-            //Combining first two groups.
-            Group newGroup = Group.combine( neighbouringGroups.get( 0 ), neighbouringGroups.get( 1 ) );
-            
-            //Combining all subsequent groups into a single group.
-            for ( int i = 2; i < neighbouringGroups.size(); i++ )
-            {
-                
-                newGroup = Group.combine( newGroup, neighbouringGroups.get( i ) );
-                
-            }
-            
-            //Adding new move to newly formed group.
-            newGroup.add( inBoardLocation );
-            
-            //Removing all previous groups, as they have been combined into a new, single, group.
-            for ( int i = 0; i < neighbouringGroups.size(); i++ )
-            {
-                
-                this.groups.remove( neighbouringGroups.get( i ) );
-                
-            }
-            
-            //Add new group to Board.
-            this.groups.add( newGroup );
-            
-        }
-        
     }
     
     /**
-        Removes a group from the <code>Board</code>.
-        @param Group Group to remove.
+        Sets the journal that keeps the save file of this <code>Board</code>'s game up to date.
+        @param MoveJournal Journal to append moves to, or <code>null</code> to stop saving moves.
+        @return void
+    */
+    public void setJournal ( MoveJournal inJournal ) { this.journal = inJournal; }
+    
+    /**
+        Returns the journal that keeps the save file of this <code>Board</code>'s game up to date, or <code>null</code> if there is none.
+        @return MoveJournal
+    */
+    public MoveJournal getJournal () { return this.journal; }
+    
+    /**
+        Sets the color the computer plays in this <code>Board</code>'s game, searching on every core of the computer. The
+        computer starts thinking at once if it is its turn.
+        @param Player.Color Color of computer's stones, or <code>null</code> for a game between two people.
         @return void
     */
-    public void removeGroup ( Group inGroup )
+    public void setComputerOpponent ( Player.Color inColor )
     {
         
-        //Removes the given Group from the board.
-        this.groups.remove( inGroup );
+        this.stopComputer();
+        this.computerColor = inColor;
+        this.search = ( inColor == null ) ? null : this.createSearch();
         
-        //Gets all BoardLocations containing Pieces within the group. ( All locations in a Group inherently contain a piece. )
-        ArrayList<BoardLocation> locations = inGroup.getLocations();
+        this.startComputerMove();
         
-        //Remove all Pieces within given Group from Board.
-        for ( int i = 0; i < locations.size(); i++ ) { locations.get( i ).removePiece(); }
+    }
+    
+    /**
+        Creates a search for the computer's moves on every core of the computer, holding as many nodes as this
+        <code>Board</code>'s size needs.
+        @return MonteCarloSearch
+    */
+    private MonteCarloSearch createSearch ()
+    {
+        
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        return new MonteCarloSearch( cores, MonteCarloSearch.getCapacity( this.state.getBoardSize(), cores, COMPUTER_THINKING_TIME ) );
+        
+    }
+    
+    /**
+        Stops the computer thinking about a move, if it is, waiting until its search has finished. The move it was thinking
+        about is never played.
+        @return void
+    */
+    public void stopComputer ()
+    {
+        
+        if ( this.computerMove == null ) { return; }
+        
+        //Cancelling the search before it starts, or interrupting it, then waiting for it to finish.
+        this.computerMove.cancel( true );
+        this.search.stop();
+        this.computerMove = null;
         
     }
     
@@ -268,143 +279,381 @@ public class Board extends JComponent implements Serializable
     
     /**
         Determines if a move is illegal, as defined by the rules of Go.
-        @param BoardLocation
+        Uses the game state's legal moves, which are only calculated once per turn.
+        @param int Point to check.
+        @return boolean
+    */
+    public boolean isMoveIllegal ( int point ) { return !this.state.isLegalMove( point ); }
+        
+    /**
+        Returns the point of the board under the given pixel coordinates, or <code>GameState.NO_POINT</code> if there is none.
+        @param int X coordinate in pixels.
+        @param int Y coordinate in pixels.
+        @return int
+    */
+    public int getPointAt ( int x, int y )
+    {
+        
+        //Each point covers the square of pixels centred on its intersection.
+        int offset = Go.BORDER_BUFFER - SIZE_OF_SQUARE / 2;
+        
+        if ( x < offset || y < offset ) { return GameState.NO_POINT; }
+        
+        int column = ( x - offset ) / SIZE_OF_SQUARE;
+        int row = ( y - offset ) / SIZE_OF_SQUARE;
+        
+        if ( column >= this.getBoardSize() || row >= this.getBoardSize() ) { return GameState.NO_POINT; }
+        
+        return this.state.getPoint( column, row );
+        
+    }
+    
+    /**
+        Returns the color of the player, who's turn it currently is.
+        @return Player.Color
+    */
+    public Player.Color getTurn () { return this.state.getTurn(); }
+    
+    /**
+        Returns the state of the game being played on this <code>Board</code>.
+        @return GameState
+    */
+    public GameState getGameState () { return this.state; }
+    
+    /**
+        Returns this <code>Board</code>'s save name.
+    */
+    public String getSaveName () { return this.saveName; }
+    
+    /**
+        Returns the size of the board.
+        @return int
+    */
+    public int getBoardSize () { return this.state.getBoardSize(); }
+    
+    /**
+        Returns if this <code>Board</code> has been saved.
+        @return boolean
+    */
+    public boolean hasBeenSaved ()
+    {
+        
+        if ( this.saveName instanceof String ) { return true; }
+        else { return false; }
+        
+    }
+    
+    //Methods required by MouseListener interface
+    public void mouseClicked ( MouseEvent event ) {}
+    public void mouseReleased ( MouseEvent event ) {}
+    public void mouseEntered ( MouseEvent event ) {}
+    public void mouseDragged ( MouseEvent event ) {}
+    
+    /**
+        Listener called when user's mouse moves over the board.
+        Shows a translucent piece at the point under the mouse, if a move there would be valid.
+        @param MouseEvent Data about the user's actions.
+        @return void
+    */
+    public void mouseMoved ( MouseEvent event )
+    {
+        
+        int point = this.getPointAt( event.getX(), event.getY() );
+        
+        //Only points that are empty and valid to move to show a translucent piece.
+        if ( point != GameState.NO_POINT && ( this.state.isGameOver() || this.isComputerTurn() || this.isMoveIllegal( point ) ) ) { point = GameState.NO_POINT; }
+        
+        this.setHoverPoint( point );
+        
+        //Warning the player when running away from atari here would be caught in a ladder.
+        this.setToolTipText( ( point != GameState.NO_POINT && this.isLadderEscape( point ) ) ? "This group cannot escape the ladder." : null );
+        
+    }
+    
+    /**
+        Returns if the given point is the last liberty of a group of the current player in atari, which a ladder would capture
+        after extending there.
+        @param int Empty point.
+        @return boolean
     */
-    public boolean isMoveIllegal ( BoardLocation inBoardLocation )
+    private boolean isLadderEscape ( int point )
     {
         
-        //Checking if player making move is moving to the same location they moved to last game.
-        //If they are, it is a violation of the Ko rule, and, therefore, illegal.
-        if ( this.turn == Player.Color.BLACK )
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
         {
             
-            if ( inBoardLocation.equals( previousBlackMove ) ) { return true; }
+            int neighbour = this.state.getNeighbour( point, direction );
+            Group group = this.state.getGroupAt( neighbour );
             
-        }
-        else
-        {
-            
-            if ( inBoardLocation.equals( previousWhiteMove ) ) { return true; }
+            if ( group != null && group.getColor() == this.state.getTurn() && group.getLibertyCount() == 1 && this.ladderReader.findEscapeMove( this.state, neighbour ) == GameState.NO_POINT ) { return true; }
             
         }
         
-        ArrayList<Group> neighbouringGroups = new ArrayList<Group>();
+        return false;
+        
+    }
+    
+    /**
+        Listener called when user's mouse exits the board.
+        @param MouseEvent Data about the user's actions.
+        @return void
+    */
+    public void mouseExited ( MouseEvent event )
+    {
         
-        //Getting all neighbouring group, both enemy and friendly.
-        for ( int i = 0; i < this.groups.size(); i++ )
+        //Removing translucent piece from the board.
+        this.setHoverPoint( GameState.NO_POINT );
+        
+    }
+    
+    /**
+        Listener called when user presses down on mouse button over the board.
+        @param MouseEvent Data about the user's actions.
+        @return void
+    */
+    public void mousePressed ( MouseEvent event )
+    {
+        
+        //Checking if user left clicked.
+        if ( event.getButton() == MouseEvent.BUTTON1 )
         {
             
-            if ( this.groups.get( i ).libertiesContain( inBoardLocation ) )
+            int point = this.getPointAt( event.getX(), event.getY() );
+            
+            //Marking the group clicked dead, or alive again, while dead stones are being marked.
+            if ( point != GameState.NO_POINT && this.markingFrame != null ) { this.toggleDeadGroup( point ); }
+            //Checking that the user clicked a point, and that a move there is valid, and does not violate the Ko Rule.
+            else if ( point != GameState.NO_POINT && !this.state.isGameOver() && !this.isComputerTurn() && !this.isMoveIllegal( point ) )
             {
                 
-                neighbouringGroups.add( this.groups.get( i ) );
+                //Removing translucent piece, and adding a piece of the current player to the point.
+                this.setHoverPoint( GameState.NO_POINT );
+                this.addPieceAt( point );
+                
+                //Switching turn to other player, without passing turn.
+                this.switchTurns( Board.TURN_NOT_PASSED );
                 
             }
             
         }
+        //Checking if user triggered a popup window.
+        else if ( event.isPopupTrigger() )
+        {
+            
+            //Displaying popup menu at location user clicked.
+            this.popupMenu.show( this, event.getX(), event.getY() );
+            
+        }
         
-        //If there are no neighbouring groups, move it legal.
-        if ( neighbouringGroups.size() == 0 ) { return false; }
-        
-        //If location is not surrounded by pieces, the move is legal.
-        if ( !this.locationIsSurrounded( inBoardLocation ) ) { return false; }
+    }
+    
+    /**
+        Returns if it is the computer's turn to move.
+        @return boolean
+    */
+    private boolean isComputerTurn () { return this.computerColor != null && !this.state.isGameOver() && this.state.getTurn() == this.computerColor; }
+    
+    /**
+        Searches for the computer's move in the background, on a copy of the game, then plays it. Does nothing unless it is
+        the computer's turn.
+        @return void
+    */
+    private void startComputerMove ()
+    {
         
-        //Past this point, all rules apply to a surrounded piece.
+        if ( !this.isComputerTurn() || this.computerMove != null ) { return; }
         
-        ArrayList<Group> enemyGroups = new ArrayList<Group>();
-        ArrayList<Group> friendlyGroups = new ArrayList<Group>();
+        //Searching a copy of the game, so the game shown is never changed by the search.
+        final GameState position = new GameState( this.getBoardSize() );
+        position.copyFrom( this.state );
         
-        //Splitting all groups into friendly and enemy groups.
-        for ( int i = 0; i < neighbouringGroups.size(); i++ )
-        {
+        this.computerMove = new SwingWorker<Integer, Void>() {
             
-            Group currentGroup = neighbouringGroups.get( i );
+            protected Integer doInBackground () { return Board.this.search.search( position, COMPUTER_THINKING_TIME ); }
             
-            if ( currentGroup.getColor() == this.turn ) { friendlyGroups.add( currentGroup ); }
-            else { enemyGroups.add( currentGroup ); }
+            protected void done ()
+            {
+                
+                //Ignoring the move if the computer was stopped while thinking.
+                if ( Board.this.computerMove != this ) { return; }
+                
+                Board.this.computerMove = null;
+                
+                int point;
+                
+                try { point = this.get(); }
+                catch ( InterruptedException e ) { return; }
+                catch ( ExecutionException e )
+                {
+                    
+                    //Telling the player, then passing for the computer with a new search, so the game can go on.
+                    System.out.println( "Encountered a problem while the computer was thinking." );
+                    JOptionPane.showMessageDialog( Board.this, "The computer could not choose a move, so it passes.", "Error", JOptionPane.ERROR_MESSAGE );
+                    
+                    Board.this.search = Board.this.createSearch();
+                    point = GameState.NO_POINT;
+                    
+                }
+                
+                //Passing, or playing the computer's stone.
+                if ( point == GameState.NO_POINT ) { Board.this.switchTurns( Board.TURN_PASSED ); }
+                else
+                {
+                    
+                    Board.this.addPieceAt( point );
+                    Board.this.switchTurns( Board.TURN_NOT_PASSED );
+                    
+                }
+                
+            }
             
-        }
+        };
         
-        boolean wouldCaptureAnEnemyGroup = false;
+        this.computerMove.execute();
         
-        //Cycling through enemy groups.
-        for ( Group element : enemyGroups )
-        {
-            
-            //If enemy group would be captured, set wouldCaptureAnEnemyGroup to true.
-            if ( element.wouldBeCapturedByMoveAt( inBoardLocation ) ) { wouldCaptureAnEnemyGroup = true; }
-            
-        }
+    }
+    
+    /**
+        Displays a window asking the players to mark dead stones, by clicking them on the board, and showing the score as it
+        changes. The final score is shown once the players are done.
+        @return void
+    */
+    private void startMarking ()
+    {
         
-        boolean allFriendlyGroupsHaveOneLiberty = true;
+        //Creates a new frame, placed beside the board.
+        this.markingFrame = new JFrame( "Mark Dead Stones" );
         
-        //Cycling through friendly groups.
-        for ( Group element : friendlyGroups )
-        {
-            
-            //If any group has more than one liberty, set allFriendlyGroupsHaveOneLiberty to false.
-            if ( element.getLibertyCount() > 1 ) { allFriendlyGroupsHaveOneLiberty = false; }
-            
-        }
+        //Configuring frame.
+        this.markingFrame.setSize( 300, 150 );
+        this.markingFrame.setResizable( false );
+        this.markingFrame.setDefaultCloseOperation( JFrame.DO_NOTHING_ON_CLOSE );
         
-        //If any friendly group has more than one liberty, move is legal.
-        if ( !allFriendlyGroupsHaveOneLiberty ) { return false; }
+        if ( this.isShowing() ) { this.markingFrame.setLocation( this.getLocationOnScreen().x + this.getWidth() + 10, this.getLocationOnScreen().y ); }
+        
+        //Creating a JPanel with absolute positioning.
+        JPanel panel = new JPanel( null );
         
-        //If there are no enemy groups, and would not capture an enemy group, move is illegal.
-        if ( enemyGroups.size() == 0 && !wouldCaptureAnEnemyGroup ) { return true; }
+        //Creating labels with instructions and score, and done button.
+        JLabel instructions = new JLabel( "Click a group to mark it dead, or alive again." );
+        this.markingLabel = new JLabel();
+        JButton doneButton = new JButton( "Done" );
         
-        //If there is more than 0 enemy groups, all friendly groups have one liberty, and would not capture an enemy group,
-        //move is illegal.
-        if ( enemyGroups.size() > 0 && allFriendlyGroupsHaveOneLiberty && !wouldCaptureAnEnemyGroup ) { return true; }
+        //Setting location and sizes of components.
+        instructions.setBounds( 10, 10, 280, 15 );
+        this.markingLabel.setBounds( 10, 45, 280, 15 );
+        doneButton.setBounds( 20, 87, 260, 25 );
         
-        //If all friendly groups have one liberty, and there are no enemy groups, move is illegal.
-        if ( allFriendlyGroupsHaveOneLiberty && enemyGroups.size() == 0 ) { return true; }
+        //Listener for Done button.
+        doneButton.addActionListener( new ActionListener () {
+            
+            public void actionPerformed ( ActionEvent event )
+            {
+                
+                //Stops marking stones, describing the marked game in the list of saved games, and shows the final score.
+                Board.this.stopMarking();
+                Board.this.getGame().updateCatalog();
+                Board.this.end();
+                
+            }
+            
+        });
         
-        //If all friendly groups have one liberty, and would not capture an enemy groups, move is illegal.
-        if ( allFriendlyGroupsHaveOneLiberty && !wouldCaptureAnEnemyGroup ) { return true; }
+        //Add labels and button to frame.
+        panel.add( instructions );
+        panel.add( this.markingLabel );
+        panel.add( doneButton );
         
-        //If move does not meet any of the above conditions, it is legal.
-        return false;
+        //Add panel to frame.
+        this.markingFrame.add( panel );
         
-    }
+        //Setting doneButton to default button of frame.
+        this.markingFrame.getRootPane().setDefaultButton( doneButton );
         
-    public BoardLocation getLocationAt ( int x, int y )
-    {
+        //Suggesting dead stones: stones in the other player's safe territory can never live, so they start marked dead.
+        UnconditionalLife life = new UnconditionalLife( this.state );
+        long[] blackTerritory = life.getSafePoints( Player.Color.BLACK );
+        long[] whiteTerritory = life.getSafePoints( Player.Color.WHITE );
+        long[] settledStones = new long[ blackTerritory.length ];
         
-        Component component = this.getComponentAt( x, y );
+        for ( int i = 0; i < settledStones.length; i++ ) { settledStones[ i ] = blackTerritory[ i ] | whiteTerritory[ i ]; }
         
-        if ( component instanceof BoardLocation ) { return ( BoardLocation ) component; }
+        this.state.markDeadStones( settledStones );
+        this.repaint();
         
-        return null;
+        //Showing score, and making frame visible.
+        this.updateMarkingScore();
+        this.markingFrame.setVisible( true );
         
     }
     
     /**
-        Returns the color of the player, who's turn it currently is.
-        @return Player.Color
-    */
-    public Player.Color getTurn () { return this.turn; }
-    
-    /**
-        Returns this <code>Board</code>'s save name.
+        Closes the window for marking dead stones, if it is open. Marks already made are kept, and the game's save file is
+        rewritten whole to hold them, along with the final score in its header.
+        @return void
     */
-    public String getSaveName () { return this.saveName; }
+    public void stopMarking ()
+    {
+        
+        if ( this.markingFrame == null ) { return; }
+        
+        this.markingFrame.dispose();
+        this.markingFrame = null;
+        
+        //Dead stones cannot be appended to the save file like moves.
+        if ( this.journal == null ) { return; }
+        
+        try { this.journal.compact( this.journal.getFile() ); }
+        catch ( IOException e )
+        {
+            
+            //Moves can no longer be saved, so the game stops trying.
+            System.out.println( "Encountered a problem while autosaving." );
+            this.journal = null;
+            
+        }
+        
+    }
     
     /**
-        Returns the size of the board.
-        @return int
+        Marks the group at the given point dead, or alive again, repainting its stones and showing the new score.
+        @param int Point of a stone in the group.
+        @return void
     */
-    public int getBoardSize () { return this.board.length; }
+    private void toggleDeadGroup ( int point )
+    {
+        
+        if ( this.state.getColorAt( point ) == null ) { return; }
+        
+        this.state.toggleDeadGroup( point );
+        
+        //Repainting the stones of the group.
+        long[] locations = this.state.getGroupAt( point ).getLocations();
+        
+        for ( int i = 0; i < locations.length; i++ )
+        {
+            
+            for ( long bits = locations[ i ]; bits != 0; bits &= bits - 1 )
+            {
+                
+                this.repaintPoint( ( i << 6 ) + Long.numberOfTrailingZeros( bits ) );
+                
+            }
+            
+        }
+        
+        this.updateMarkingScore();
+        
+    }
     
     /**
-        Returns if this <code>Board</code> has been saved.
-        @return boolean
+        Shows the current score in the window for marking dead stones.
+        @return void
     */
-    public boolean hasBeenSaved ()
+    private void updateMarkingScore ()
     {
         
-        if ( this.saveName instanceof String ) { return true; }
-        else { return false; }
+        this.markingLabel.setText( "Black: " + this.state.getBlackScore() + "     White: " + this.state.getWhiteScore() + " + " + GameState.KOMI + " komi" );
         
     }
     
@@ -431,18 +680,18 @@ public class Board extends JComponent implements Serializable
         
         //Creating labels with score, new game button and winner image.
         JLabel winner = null;
-        final JLabel whiteLabel = new JLabel( "White Score: " + this.whiteScore );
-        final JLabel blackLabel = new JLabel( "Black Score: " + this.blackScore );
+        final JLabel whiteLabel = new JLabel( "White Score: " + this.state.getWhiteScore() + " + " + GameState.KOMI );
+        final JLabel blackLabel = new JLabel( "Black Score: " + this.state.getBlackScore() );
         JButton newGameButton = new JButton( "New Game" );
         
         //Setting location and sizes of components.
-        whiteLabel.setBounds( 10, 37, 100, 15 );
-        blackLabel.setBounds( 10, 82, 100, 15 );
+        whiteLabel.setBounds( 10, 37, 170, 15 );
+        blackLabel.setBounds( 10, 82, 170, 15 );
         newGameButton.setBounds( 20, 137, 360, 25 );
         
-        //Setting winner image to winner's color.
-        if ( this.whiteScore > this.blackScore ) { winner = new JLabel( new ImageIcon( "whiteWins.png" ) ); }
-        else if ( this.blackScore > this.whiteScore ) { winner = new JLabel( new ImageIcon( "blackWins.png" ) ); }
+        //Setting winner image to winner's color. White's score includes komi.
+        if ( this.state.getWhiteScore() + GameState.KOMI > this.state.getBlackScore() ) { winner = new JLabel( new ImageIcon( "whiteWins.png" ) ); }
+        else if ( this.state.getBlackScore() > this.state.getWhiteScore() + GameState.KOMI ) { winner = new JLabel( new ImageIcon( "blackWins.png" ) ); }
         else { winner = new JLabel( new ImageIcon( "draw.png" ) ); }
         
         //Setting bounds of winner image.
@@ -497,255 +746,159 @@ public class Board extends JComponent implements Serializable
     private final void reset ( int boardSize )
     {
         
-        //Getting game.
-        Go game = ( Go ) this.getParent().getParent().getParent().getParent().getParent();
-        
-        game.replaceBoard( new Board( boardSize ) );
+        this.getGame().replaceBoard( Board.createNewGame( boardSize ) );
         
     }
     
     /**
-        Determines if a location is surrounded, with no regard to piece color.
-        @param BoardLocation Location to check if surrounded.
-        @return boolean
+        Returns the window this <code>Board</code> is shown in.
+        @return Go
+    */
+    private Go getGame () { return ( Go ) this.getParent().getParent().getParent().getParent().getParent(); }
+    
+    /**
+        Appends a move to the game's save file, if it has one.
+        @param int Point of move, or <code>GameState.NO_POINT</code> for a pass.
+        @return void
     */
-    private boolean locationIsSurrounded ( BoardLocation inBoardLocation )
+    private void appendToJournal ( int point )
     {
         
-        boolean locationIsSurrounded = false;
+        if ( this.journal == null ) { return; }
         
-        //Getting surrounding locations.
-        BoardLocation aboveLocation = this.getLocationAt( inBoardLocation.getX(), inBoardLocation.getY() - SIZE_OF_SQUARE );
-        BoardLocation rightLocation = this.getLocationAt( inBoardLocation.getX() + SIZE_OF_SQUARE, inBoardLocation.getY() );
-        BoardLocation belowLocation = this.getLocationAt( inBoardLocation.getX(), inBoardLocation.getY() + SIZE_OF_SQUARE );
-        BoardLocation leftLocation = this.getLocationAt( inBoardLocation.getX() - SIZE_OF_SQUARE, inBoardLocation.getY() );
-        
-        boolean containsAboveLocation = false;
-        boolean containsRightLocation = false;
-        boolean containsBelowLocation = false;
-        boolean containsLeftLocation = false;
-        
-        //Determining if each location contains a piece.
-        if ( aboveLocation instanceof BoardLocation && aboveLocation.containsPiece() ) { containsAboveLocation = true; }
-        if ( rightLocation instanceof BoardLocation && rightLocation.containsPiece() ) { containsRightLocation = true; }
-        if ( belowLocation instanceof BoardLocation && belowLocation.containsPiece() ) { containsBelowLocation = true; }
-        if ( leftLocation instanceof BoardLocation && leftLocation.containsPiece() ) { containsLeftLocation = true; }
-        
-        //Getting type of given BoardLocation.
-        BoardLocation.Type inBoardLocationType = inBoardLocation.getType();
-        
-        //Determining if given BoardLocation's on board liberties are filled by pieces at surrounding location.
-        if ( inBoardLocationType == BoardLocation.Type.TOP_LEFT )
-        {
-            
-            //Location is in top left corner.
-        
-            if ( containsRightLocation && containsBelowLocation )
-            {
-
-                locationIsSurrounded = true;
-        
-            }
-        
-        }
-        else if ( inBoardLocationType == BoardLocation.Type.TOP )
-        {
-            
-            //Location is in top row.
-        
-            if ( containsRightLocation && containsBelowLocation && containsLeftLocation )
-            {
-            
-                locationIsSurrounded = true;
-                     
-            }
-        
-        }
-        else if ( inBoardLocationType == BoardLocation.Type.TOP_RIGHT )
-        {
-            
-            //Location is in top right corner.
-        
-            if ( containsBelowLocation && containsLeftLocation )
-            {
-            
-                locationIsSurrounded = true;
-            
-            }
-        
-        }
-        else if ( inBoardLocationType == BoardLocation.Type.RIGHT )
+        try { this.journal.append( point ); }
+        catch ( IOException e )
         {
             
-            //Location is in right column.
-        
-            if ( containsAboveLocation && containsBelowLocation && containsLeftLocation )
-            {
+            //Moves can no longer be saved, so the game stops trying.
+            System.out.println( "Encountered a problem while autosaving." );
+            this.journal = null;
             
-                locationIsSurrounded = true;           
-            }
-        
         }
-        else if ( inBoardLocationType == BoardLocation.Type.BOTTOM_RIGHT )
-        {
-            
-            //Location is in bottom right corner.
         
-            if ( containsAboveLocation && containsLeftLocation )
-            {
-            
-                locationIsSurrounded = true;
-            
-            }
-        
-        }
-        else if ( inBoardLocationType == BoardLocation.Type.BOTTOM )
-        {
-            
-            //Location is in bottom row.
+    }
+    
+    /**
+        Moves the translucent piece to the given point, repainting only the points it left and entered.
+        @param int Point to show translucent piece at, or <code>GameState.NO_POINT</code> to show none.
+        @return void
+    */
+    private void setHoverPoint ( int point )
+    {
         
-            if ( containsAboveLocation && containsRightLocation && containsLeftLocation )
-            {
-            
-                locationIsSurrounded = true;
-            
-            }
+        if ( point == this.hoverPoint ) { return; }
         
-        }
-        else if ( inBoardLocationType == BoardLocation.Type.BOTTOM_LEFT )
-        {
-            
-            //Location is in bottom left corner.
+        if ( this.hoverPoint != GameState.NO_POINT ) { this.repaintPoint( this.hoverPoint ); }
         
-            if ( containsAboveLocation && containsRightLocation )
-            {
-            
-                locationIsSurrounded = true;
-            
-            }
+        this.hoverPoint = point;
         
-        }
-        else if ( inBoardLocationType == BoardLocation.Type.LEFT )
-        {
-            
-            //Location is in left column.
+        if ( this.hoverPoint != GameState.NO_POINT ) { this.repaintPoint( this.hoverPoint ); }
         
-            if ( containsAboveLocation && containsBelowLocation && containsRightLocation )
-            {
-            
-                locationIsSurrounded = true;
-            
-            }
-        
-        }
-        else
-        {
-            
-            //Location is in middle of board.
+    }
+    
+    /**
+        Repaints only the area of the board covered by the given point.
+        @param int Point to repaint.
+        @return void
+    */
+    private void repaintPoint ( int point ) { this.repaint( this.getPointBounds( point ) ); }
+    
+    /**
+        Returns the area of the board covered by the given point, in pixels.
+        @param int Point.
+        @return Rectangle
+    */
+    private Rectangle getPointBounds ( int point ) { return new Rectangle( this.getPointX( point ), this.getPointY( point ), SIZE_OF_SQUARE, SIZE_OF_SQUARE ); }
+    
+    /**
+        Returns the X coordinate of the top left corner of the given point's area, in pixels.
+        @param int Point.
+        @return int
+    */
+    private int getPointX ( int point ) { return this.state.getGeometry().getColumn( point ) * SIZE_OF_SQUARE + Go.BORDER_BUFFER - SIZE_OF_SQUARE / 2; }
+    
+    /**
+        Returns the Y coordinate of the top left corner of the given point's area, in pixels.
+        @param int Point.
+        @return int
+    */
+    private int getPointY ( int point ) { return this.state.getGeometry().getRow( point ) * SIZE_OF_SQUARE + Go.BORDER_BUFFER - SIZE_OF_SQUARE / 2; }
+    
+    /**
+        Returns the <code>Piece</code> used to paint stones of the given color and transparency.
+        @param Player.Color Color of stone.
+        @param boolean If piece is translucent or not.
+        @return Piece
+    */
+    private Piece getPiece ( Player.Color inColor, boolean inTranslucent )
+    {
         
-            if ( containsAboveLocation && containsRightLocation && containsBelowLocation && containsLeftLocation )
-            {
-
-                locationIsSurrounded = true;
-
-            }
+        int index = ( inColor == Player.Color.BLACK ) ? 0 : 2;
         
-        }
+        if ( inTranslucent ) { index++; }
         
-        return locationIsSurrounded;
+        return this.pieces[ index ];
         
     }
     
     /**
-        Determines the final score of the game through territory scoring.
+        Loads the images of the board and its pieces, and creates the popup menu.
+        None of these are serializable, so this is done both when a <code>Board</code> is created and when one is loaded.
         @return void
     */
-    private void determineScore ()
+    private void initialize ()
     {
         
-        int blackScore = 0;
-        ArrayList<BoardLocation> territory = new ArrayList<BoardLocation>();
-        
-        //Cycling through groups.
-        for ( Group element : this.groups )
-        {
-            
-            //If color of group is black.
-            if ( element.getColor() == Player.Color.BLACK )
-            {
-                
-                //Add all liberties to territory.
-                territory.addAll( element.getLiberties() );
-                
-            }
-            
-        }
+        //No translucent piece is shown until the mouse moves over the board.
+        this.hoverPoint = GameState.NO_POINT;
         
-        //Cycling through groups.
-        for ( Group element : this.groups )
-        {
-            
-            //If color of group is white.
-            if ( element.getColor() == Player.Color.WHITE )
-            {
-                
-                //Cycling through liberties of group.
-                for ( BoardLocation locationToCheck : element.getLiberties() )
-                {
-                    
-                    //If black territory contains white liberty, remove location from black territory, as it is contested.
-                    if ( territory.contains( locationToCheck ) ) { territory.remove( locationToCheck ); }
-                    
-                }
-                
-            }
-            
-        }
+        //Creating the reader used to warn of ladders under the mouse.
+        this.ladderReader = new LadderReader( this.getBoardSize() );
         
-        //Sets black score
-        this.blackScore = territory.size();
+        File goban;
         
-        //Reset ArrayList containing territories
-        territory.clear();
+        //Sets file to read to correct image, based on board size.
+        if ( this.getBoardSize() == 19 ) { goban = new File( "19x19goban.png" ); }
+        else if ( this.getBoardSize() == 13 ) { goban = new File( "13x13goban.png" ); }
+        else { goban = new File( "9x9goban.png" ); }
         
-        //Cycling through groups.
-        for ( Group element : this.groups )
+        //Reads image of board and stores it in an instance variable.
+        try { this.boardImage = ImageIO.read( goban ); }
+        catch ( IOException e )
         {
             
-            //If group is white.
-            if ( element.getColor() == Player.Color.WHITE )
-            {
-                
-                //Add all liberties to territory.
-                territory.addAll( element.getLiberties() );
-                
-            }
+            //Cannot find image of the board. Cannot continue.
+            System.out.println( "Board image not found." );
+            System.exit( 1 );
             
         }
         
-        //Cycling through groups.
-        for ( Group element : this.groups )
-        {
+        //Gets the shared piece of each color and transparency, used to paint every stone on the board.
+        this.pieces = new Piece[ 4 ];
+        this.pieces[ 0 ] = Piece.getPiece( Player.Color.BLACK, Piece.IS_NOT_TRANSPARENT );
+        this.pieces[ 1 ] = Piece.getPiece( Player.Color.BLACK, Piece.IS_TRANSPARENT );
+        this.pieces[ 2 ] = Piece.getPiece( Player.Color.WHITE, Piece.IS_NOT_TRANSPARENT );
+        this.pieces[ 3 ] = Piece.getPiece( Player.Color.WHITE, Piece.IS_TRANSPARENT );
+        
+        //Instantiating popup menu
+        this.popupMenu = new JPopupMenu();
+        
+        //Creating menu item for player to pass their turn. Adding anonymous listener to menu item.
+        JMenuItem menuItem = new JMenuItem( "Pass Turn" );
+        menuItem.addActionListener( new ActionListener () {
             
-            //If group is black.
-            if ( element.getColor() == Player.Color.BLACK )
+            public void actionPerformed ( ActionEvent e )
             {
                 
-                //Cycling through group's liberties.
-                for ( BoardLocation locationToCheck : element.getLiberties() )
-                {
-                    
-                    //If white territory contains black liberty, remove location from white territory, as it is contested.
-                    if ( territory.contains( locationToCheck ) ) { territory.remove( locationToCheck ); }
-                    
-                }
+                //Passing turn of current player, unless the game has ended or the computer is thinking about its move.
+                if ( !Board.this.state.isGameOver() && Board.this.markingFrame == null && !Board.this.isComputerTurn() ) { Board.this.switchTurns( Board.TURN_PASSED ); }
                 
             }
             
-        }
+        });
         
-        //Set white's score.
-        this.whiteScore = territory.size();
+        //Adding menu item to popup menu.
+        this.popupMenu.add( menuItem );
         
     }
     
@@ -760,24 +913,8 @@ public class Board extends JComponent implements Serializable
         //Calls default readObject method.
         in.defaultReadObject();
         
-        //As BufferImage is not serializable, we must recreate it when loading object back into program.
-        File goban;
-        
-        //Assigning file the proper image, based on an instance variable.
-        if ( this.board.length == 19 ) { goban = new File( "19x19goban.png" ); }
-        else if ( this.board.length == 13 ) { goban = new File( "13x13goban.png" ); }
-        else { goban = new File( "9x9goban.png" ); }
-        
-        //Reading in image and setting to instance variable.
-        try { this.boardImage = ImageIO.read( goban ); }
-        catch ( IOException e )
-        {
-            
-            //Board image not found in program's folder. Unable to continue.
-            System.out.println( "Board image not found." );
-            System.exit( 1 );
-            
-        }
+        //As images and the popup menu are not serializable, we must recreate them when loading object back into program.
+        this.initialize();
         
     }
     
@@ -0,0 +1,216 @@
+import java.io.Serializable;
+
+/**
+    Class describing the layout of the points on a board of a single size.
+
+    The neighbours of every point, the eight points around it, and the bitboard masks used to shift whole bitboards, are
+    calculated once per board size and shared by every game of that size. Looking up a neighbour is then a single array access.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class BoardGeometry implements Serializable
+{
+
+    //Largest board size supported.
+    public static final int MAX_BOARD_SIZE = 19;
+
+    private static final BoardGeometry[] geometries = new BoardGeometry[ MAX_BOARD_SIZE + 1 ];
+
+    private int boardSize;
+    private int pointCount;
+    private int wordCount;
+    private int[] neighbours;
+    private int[] surroundingPoints;
+    private char[] emptyPatternKeys;
+    private long[] onBoard;
+    private long[] firstColumn;
+    private long[] lastColumn;
+
+    /**
+        Returns the geometry of a board of the given size, creating it the first time it is needed.
+        @param int Size of board.
+        @return BoardGeometry
+    */
+    public static synchronized BoardGeometry forSize ( int inBoardSize )
+    {
+
+        if ( inBoardSize < 1 || inBoardSize > MAX_BOARD_SIZE ) { throw new IllegalArgumentException( "Unsupported board size: " + inBoardSize ); }
+
+        if ( BoardGeometry.geometries[ inBoardSize ] == null ) { BoardGeometry.geometries[ inBoardSize ] = new BoardGeometry( inBoardSize ); }
+
+        return BoardGeometry.geometries[ inBoardSize ];
+
+    }
+
+    /**
+        Constructor. Calculates the geometry of a board of the given size.
+        @param int Size of board.
+    */
+    private BoardGeometry ( int inBoardSize )
+    {
+
+        this.boardSize = inBoardSize;
+        this.pointCount = inBoardSize * inBoardSize;
+        this.wordCount = ( this.pointCount + 63 ) / 64;
+
+        //Four neighbours are stored for every point, in the order above, right, below and left.
+        this.neighbours = new int[ this.pointCount * 4 ];
+
+        //Eight surrounding points are stored for every point, a row at a time from the top left, and the pattern of each
+        //point on an empty board, which only shows the edges.
+        this.surroundingPoints = new int[ this.pointCount * 8 ];
+        this.emptyPatternKeys = new char[ this.pointCount ];
+
+        //Creates bitboards marking every point on the board, and the points in its first and last columns.
+        //These are used to keep shifted bitboards from wrapping around the edges of the board.
+        this.onBoard = new long[ this.wordCount ];
+        this.firstColumn = new long[ this.wordCount ];
+        this.lastColumn = new long[ this.wordCount ];
+
+        for ( int point = 0; point < this.pointCount; point++ )
+        {
+
+            int column = point % inBoardSize;
+            int row = point / inBoardSize;
+
+            //Moving one point in each direction, checking that we do not leave the board.
+            this.neighbours[ point * 4 + GameState.ABOVE ] = ( row > 0 ) ? point - inBoardSize : GameState.NO_POINT;
+            this.neighbours[ point * 4 + GameState.RIGHT ] = ( column < inBoardSize - 1 ) ? point + 1 : GameState.NO_POINT;
+            this.neighbours[ point * 4 + GameState.BELOW ] = ( row < inBoardSize - 1 ) ? point + inBoardSize : GameState.NO_POINT;
+            this.neighbours[ point * 4 + GameState.LEFT ] = ( column > 0 ) ? point - 1 : GameState.NO_POINT;
+
+            for ( int i = 0; i < 8; i++ )
+            {
+
+                int surroundingColumn = column + PatternTable.getColumnOffset( i );
+                int surroundingRow = row + PatternTable.getRowOffset( i );
+
+                //Points off the board are marked as edges in the point's pattern.
+                if ( surroundingColumn >= 0 && surroundingColumn < inBoardSize && surroundingRow >= 0 && surroundingRow < inBoardSize ) { this.surroundingPoints[ point * 8 + i ] = surroundingRow * inBoardSize + surroundingColumn; }
+                else
+                {
+
+                    this.surroundingPoints[ point * 8 + i ] = GameState.NO_POINT;
+                    this.emptyPatternKeys[ point ] |= PatternTable.EDGE << ( 2 * i );
+
+                }
+
+            }
+
+            GameState.setBit( this.onBoard, point );
+            if ( column == 0 ) { GameState.setBit( this.firstColumn, point ); }
+            if ( column == inBoardSize - 1 ) { GameState.setBit( this.lastColumn, point ); }
+
+        }
+
+    }
+
+    /**
+        Returns the size of the board.
+        @return int
+    */
+    public int getBoardSize () { return this.boardSize; }
+
+    /**
+        Returns the number of points on the board.
+        @return int
+    */
+    public int getPointCount () { return this.pointCount; }
+
+    /**
+        Returns the number of 64 bit words in each bitboard of this size.
+        @return int
+    */
+    public int getWordCount () { return this.wordCount; }
+
+    /**
+        Returns the point at the given column and row.
+        @param int Column of point, from the left of the board.
+        @param int Row of point, from the top of the board.
+        @return int
+    */
+    public int getPoint ( int column, int row ) { return row * this.boardSize + column; }
+
+    /**
+        Returns the column of the given point, from the left of the board.
+        @param int Point.
+        @return int
+    */
+    public int getColumn ( int point ) { return point % this.boardSize; }
+
+    /**
+        Returns the row of the given point, from the top of the board.
+        @param int Point.
+        @return int
+    */
+    public int getRow ( int point ) { return point / this.boardSize; }
+
+    /**
+        Returns the point next to the given point in the given direction, or <code>NO_POINT</code> if that would be off the board.
+        @param int Point to start from.
+        @param int Direction to look in. One of <code>ABOVE</code>, <code>RIGHT</code>, <code>BELOW</code> or <code>LEFT</code>.
+        @return int
+    */
+    public int getNeighbour ( int point, int direction ) { return this.neighbours[ ( point << 2 ) + direction ]; }
+
+    /**
+        Returns one of the eight points around the given point, or <code>NO_POINT</code> if that would be off the board.
+        @param int Point to start from.
+        @param int Index of surrounding point, from 0 at the top left to 7 at the bottom right, skipping the point itself.
+        @return int
+    */
+    public int getSurroundingPoint ( int point, int index ) { return this.surroundingPoints[ ( point << 3 ) + index ]; }
+
+    /**
+        Returns a copy of the pattern key of every point on an empty board, which only shows the edges of the board.
+        @return char[]
+    */
+    public char[] getEmptyPatternKeys () { return this.emptyPatternKeys.clone(); }
+
+    /**
+        Returns one word of the bitboard of every point on the board.
+        @param int Index of word.
+        @return long
+    */
+    public long getOnBoard ( int index ) { return this.onBoard[ index ]; }
+
+    /**
+        Fills a bitboard with every point next to a point in the given bitboard.
+        Each word is shifted by one row up and down and one column left and right, so no single point is visited.
+        @param long[] Bitboard of points to find the neighbours of.
+        @param long[] Bitboard to fill. Must not be the same array as the first bitboard.
+        @return void
+    */
+    public void getNeighbouringPoints ( long[] inPoints, long[] outNeighbours )
+    {
+
+        int last = this.wordCount - 1;
+
+        for ( int i = 0; i <= last; i++ )
+        {
+
+            //Bits carried over from the words before and after this one.
+            long previous = ( i > 0 ) ? inPoints[ i - 1 ] : 0;
+            long next = ( i < last ) ? inPoints[ i + 1 ] : 0;
+
+            //Moving every point one column right, one column left, one row down and one row up.
+            long right = ( inPoints[ i ] << 1 ) | ( previous >>> 63 );
+            long left = ( inPoints[ i ] >>> 1 ) | ( next << 63 );
+            long below = ( inPoints[ i ] << this.boardSize ) | ( previous >>> ( 64 - this.boardSize ) );
+            long above = ( inPoints[ i ] >>> this.boardSize ) | ( next << ( 64 - this.boardSize ) );
+
+            //Points moved off the side of the board wrap into the next row, and are removed.
+            outNeighbours[ i ] = ( ( right & ~this.firstColumn[ i ] ) | ( left & ~this.lastColumn[ i ] ) | below | above ) & this.onBoard[ i ];
+
+        }
+
+    }
+
+    /**
+        Replaces a deserialized <code>BoardGeometry</code> with the shared geometry of its size.
+        @return Object
+    */
+    private Object readResolve () { return BoardGeometry.forSize( this.boardSize ); }
+
+}
\ No newline at end of file
@@ -0,0 +1,1122 @@
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+    Class representing the state of a game of Go, independent of how ( or if ) it is displayed.
+
+    Stones are stored in bitboards, one per color, with one bit for each point on the board.
+    Points are numbered row by row, starting in the top left corner of the board.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class GameState implements Serializable
+{
+
+    //Value used to represent a point that is not on the board.
+    public static final int NO_POINT = -1;
+
+    //Constants for the four directions a neighbouring point can be in.
+    public static final int ABOVE = 0, RIGHT = 1, BELOW = 2, LEFT = 3;
+
+    //Points given to white at the end of the game, for moving second. The half point means a game can never be drawn.
+    public static final double KOMI = 6.5;
+
+    //Random keys for a stone of each color on each point, used to hash positions. A fixed seed keeps hashes the same between runs.
+    private static final long[] BLACK_KEYS = new long[ BoardGeometry.MAX_BOARD_SIZE * BoardGeometry.MAX_BOARD_SIZE ];
+    private static final long[] WHITE_KEYS = new long[ BoardGeometry.MAX_BOARD_SIZE * BoardGeometry.MAX_BOARD_SIZE ];
+
+    static
+    {
+
+        Random random = new Random( 0x5A0B215DL );
+
+        for ( int i = 0; i < BLACK_KEYS.length; i++ )
+        {
+
+            BLACK_KEYS[ i ] = random.nextLong();
+            WHITE_KEYS[ i ] = random.nextLong();
+
+        }
+
+    }
+
+    private BoardGeometry geometry;
+    private int wordCount;
+    private long[] blackStones;
+    private long[] whiteStones;
+    private long[] capturedStones;
+    private long[] legalMoves;
+    private boolean legalMovesCalculated;
+    private int[] parent;
+    private int[] rank;
+    private Group[] groups;
+    private Player.Color turn;
+    private boolean lastTurnPassed;
+    private boolean gameOver;
+    private long hash;
+    private char[] patternKeys;
+    private PositionHistory history;
+    private int whiteScore;
+    private int blackScore;
+    private int blackPrisoners;
+    private int whitePrisoners;
+    private long[] deadStones;
+    private int[] moves;
+    private int moveCount;
+    private long[] startingBlackStones;
+    private long[] startingWhiteStones;
+    private Player.Color startingTurn;
+    private boolean startingTurnPassed;
+    private transient int[] fillStack;
+    private transient int[] fillMarks;
+    private transient long[] livingStones;
+    private transient int fillGeneration;
+
+    /**
+        Constructor. Creates an empty game on a board of the given size.
+        @param int Size of board.
+    */
+    public GameState ( int inBoardSize )
+    {
+
+        //Gets the layout of the points on a board of this size, shared with every other game of this size.
+        this.geometry = BoardGeometry.forSize( inBoardSize );
+
+        //Sets first turn to be Black's. Black always goes first in Go.
+        this.turn = Player.Color.BLACK;
+
+        //Creates one bitboard per color, with enough 64 bit words to hold a bit for every point.
+        this.wordCount = this.geometry.getWordCount();
+        this.blackStones = new long[ this.wordCount ];
+        this.whiteStones = new long[ this.wordCount ];
+        this.capturedStones = new long[ this.wordCount ];
+        this.legalMoves = new long[ this.wordCount ];
+        this.deadStones = new long[ this.wordCount ];
+
+        //Each point's pattern key shows the eight points around it, which are all empty or off the board.
+        this.patternKeys = this.geometry.getEmptyPatternKeys();
+
+        //Creates the union-find arrays used to track which group each stone belongs to.
+        //Each group is stored at the point of the stone at the root of its tree. There are no stones on the board yet,
+        //so every point gets an empty Group, which is reused whenever a stone is placed there.
+        this.parent = new int[ inBoardSize * inBoardSize ];
+        this.rank = new int[ inBoardSize * inBoardSize ];
+        this.groups = new Group[ inBoardSize * inBoardSize ];
+
+        for ( int i = 0; i < this.groups.length; i++ ) { this.groups[ i ] = new Group( this ); }
+
+        //The empty board is the only position that has occurred so far. Its hash is zero.
+        this.history = new PositionHistory();
+        this.history.add( this.hash );
+
+        //Every move played is recorded, so the game can be saved as the list of its moves.
+        this.moves = new int[ inBoardSize * inBoardSize ];
+        this.startingTurn = Player.Color.BLACK;
+
+    }
+
+    /**
+        Makes this game a copy of the given game, which must be on a board of the same size. Every array is reused, so a
+        game can be copied into the same scratch game again and again, such as before each playout, without creating objects.
+        Stones marked dead are copied too.
+        @param GameState Game to copy.
+        @return void
+    */
+    public void copyFrom ( GameState inState )
+    {
+
+        if ( inState.geometry != this.geometry ) { throw new IllegalArgumentException( "Games must be on boards of the same size." ); }
+
+        System.arraycopy( inState.blackStones, 0, this.blackStones, 0, this.wordCount );
+        System.arraycopy( inState.whiteStones, 0, this.whiteStones, 0, this.wordCount );
+        System.arraycopy( inState.capturedStones, 0, this.capturedStones, 0, this.wordCount );
+        System.arraycopy( inState.legalMoves, 0, this.legalMoves, 0, this.wordCount );
+        System.arraycopy( inState.deadStones, 0, this.deadStones, 0, this.wordCount );
+        System.arraycopy( inState.parent, 0, this.parent, 0, this.parent.length );
+        System.arraycopy( inState.rank, 0, this.rank, 0, this.rank.length );
+        System.arraycopy( inState.patternKeys, 0, this.patternKeys, 0, this.patternKeys.length );
+
+        //Only the groups at the roots of trees are ever read. Every other group is reset before it is used again.
+        for ( int point = 0; point < this.groups.length; point++ )
+        {
+
+            if ( inState.isRoot( point ) ) { this.groups[ point ].copyFrom( inState.groups[ point ] ); }
+
+        }
+
+        //Copying the moves played, making room for them first if needed.
+        if ( this.moves.length < inState.moveCount ) { this.moves = new int[ inState.moves.length ]; }
+
+        System.arraycopy( inState.moves, 0, this.moves, 0, inState.moveCount );
+        this.moveCount = inState.moveCount;
+
+        this.history.copyFrom( inState.history );
+        this.legalMovesCalculated = inState.legalMovesCalculated;
+        this.turn = inState.turn;
+        this.lastTurnPassed = inState.lastTurnPassed;
+        this.gameOver = inState.gameOver;
+        this.hash = inState.hash;
+        this.whiteScore = inState.whiteScore;
+        this.blackScore = inState.blackScore;
+        this.blackPrisoners = inState.blackPrisoners;
+        this.whitePrisoners = inState.whitePrisoners;
+
+        //The starting position is never changed once set up, so it is shared.
+        this.startingBlackStones = inState.startingBlackStones;
+        this.startingWhiteStones = inState.startingWhiteStones;
+        this.startingTurn = inState.startingTurn;
+        this.startingTurnPassed = inState.startingTurnPassed;
+
+    }
+
+    /**
+        Places the given stones on an empty board, as the position the rest of the game is played from.
+        Used to continue a game of which only the position is known. The stones are not recorded as moves.
+        @param long[] Bitboard of black stones.
+        @param long[] Bitboard of white stones.
+        @param Player.Color Color of the player who's turn it is.
+        @param boolean If the last turn was passed.
+        @return void
+    */
+    public void setUpPosition ( long[] inBlackStones, long[] inWhiteStones, Player.Color inTurn, boolean inTurnPassed )
+    {
+
+        if ( this.moveCount > 0 ) { throw new IllegalStateException( "A position can only be set up before any moves are played." ); }
+
+        //Placing every stone, each joining the groups of the friendly stones already placed next to it.
+        for ( int point = 0; point < this.getPointCount(); point++ )
+        {
+
+            if ( GameState.testBit( inBlackStones, point ) ) { this.placeStone( point, Player.Color.BLACK ); }
+            else if ( GameState.testBit( inWhiteStones, point ) ) { this.placeStone( point, Player.Color.WHITE ); }
+
+        }
+
+        //Liberties found while placing stones may have been filled by later stones, so they are found again for every group.
+        for ( int point = 0; point < this.getPointCount(); point++ )
+        {
+
+            if ( this.isRoot( point ) ) { this.groups[ point ].calculateLiberties(); }
+
+        }
+
+        this.turn = inTurn;
+        this.lastTurnPassed = inTurnPassed;
+        this.legalMovesCalculated = false;
+
+        //The set up position replaces the empty board as the first position of the game.
+        this.history.clear();
+        this.history.add( this.hash );
+
+        this.startingBlackStones = inBlackStones.clone();
+        this.startingWhiteStones = inWhiteStones.clone();
+        this.startingTurn = inTurn;
+        this.startingTurnPassed = inTurnPassed;
+
+    }
+
+    /**
+        Returns the size of the board.
+        @return int
+    */
+    public int getBoardSize () { return this.geometry.getBoardSize(); }
+
+    /**
+        Returns the number of points on the board.
+        @return int
+    */
+    public int getPointCount () { return this.geometry.getPointCount(); }
+
+    /**
+        Returns the layout of the points on the board.
+        @return BoardGeometry
+    */
+    public BoardGeometry getGeometry () { return this.geometry; }
+
+    /**
+        Returns the number of 64 bit words in each bitboard of this game.
+        @return int
+    */
+    public int getWordCount () { return this.wordCount; }
+
+    /**
+        Returns the point at the given column and row.
+        @param int Column of point, from the left of the board.
+        @param int Row of point, from the top of the board.
+        @return int
+    */
+    public int getPoint ( int column, int row ) { return this.geometry.getPoint( column, row ); }
+
+    /**
+        Returns the point next to the given point in the given direction, or <code>NO_POINT</code> if that would be off the board.
+        @param int Point to start from.
+        @param int Direction to look in. One of <code>ABOVE</code>, <code>RIGHT</code>, <code>BELOW</code> or <code>LEFT</code>.
+        @return int
+    */
+    public int getNeighbour ( int point, int direction ) { return this.geometry.getNeighbour( point, direction ); }
+
+    /**
+        Returns if there is a stone at the given point.
+        @param int Point to check.
+        @return boolean
+    */
+    public boolean containsStone ( int point ) { return GameState.testBit( this.blackStones, point ) || GameState.testBit( this.whiteStones, point ); }
+
+    /**
+        Returns one word of the bitboard of empty points.
+        @param int Index of word.
+        @return long
+    */
+    public long getEmptyPoints ( int index ) { return this.geometry.getOnBoard( index ) & ~( this.blackStones[ index ] | this.whiteStones[ index ] ); }
+
+    /**
+        Returns the bitboard of stones of the given color. The bitboard is the game's own, and must not be changed.
+        @param Player.Color Color of stones.
+        @return long[]
+    */
+    public long[] getStones ( Player.Color inColor ) { return ( inColor == Player.Color.BLACK ) ? this.blackStones : this.whiteStones; }
+
+    /**
+        Returns the color of the stone at the given point, or <code>null</code> if the point is empty.
+        @param int Point to check.
+        @return Player.Color
+    */
+    public Player.Color getColorAt ( int point )
+    {
+
+        if ( GameState.testBit( this.blackStones, point ) ) { return Player.Color.BLACK; }
+        else if ( GameState.testBit( this.whiteStones, point ) ) { return Player.Color.WHITE; }
+        else { return null; }
+
+    }
+
+    /**
+        Returns the <code>Group</code> the stone at the given point belongs to, or <code>null</code> if the point is empty.
+        @param int Point to check.
+        @return Group
+    */
+    public Group getGroupAt ( int point )
+    {
+
+        if ( point == NO_POINT || !this.containsStone( point ) ) { return null; }
+
+        return this.groups[ this.find( point ) ];
+
+    }
+
+    /**
+        Returns the point at the root of the group the stone at the given point belongs to. Every stone of a group has the same
+        root, so it can be used to number groups. Only used for points containing a stone.
+        @param int Point of a stone.
+        @return int
+    */
+    public int getGroupRoot ( int point ) { return this.find( point ); }
+
+    /**
+        Returns the bitboard of stones that were captured by the last stone placed.
+        @return long[]
+    */
+    public long[] getCapturedStones () { return this.capturedStones; }
+
+    /**
+        Returns the Zobrist hash of the stones on the board. Equal positions always have equal hashes,
+        so the hash can be used to detect repeated positions, or as a key for caching anything about a position.
+        @return long
+    */
+    public long getHash () { return this.hash; }
+
+    /**
+        Returns the key of the pattern of stones, empty points and edges in the eight points around the given point, as
+        read by <code>PatternTable</code>. Kept up to date as stones are placed and captured.
+        @param int Point.
+        @return int
+    */
+    public int getPatternKey ( int point ) { return this.patternKeys[ point ]; }
+
+    /**
+        Returns the key a stone of the given color on the given point contributes to a position's hash.
+        @param int Point of stone.
+        @param Player.Color Color of stone.
+        @return long
+    */
+    public static long getStoneKey ( int point, Player.Color inColor ) { return ( inColor == Player.Color.BLACK ) ? BLACK_KEYS[ point ] : WHITE_KEYS[ point ]; }
+
+    /**
+        Returns the color of the player, who's turn it currently is.
+        @return Player.Color
+    */
+    public Player.Color getTurn () { return this.turn; }
+
+    /**
+        Returns if the game has ended.
+        @return boolean
+    */
+    public boolean isGameOver () { return this.gameOver; }
+
+    /**
+        Returns white's score, as determined at the end of the game.
+        @return int
+    */
+    public int getWhiteScore () { return this.whiteScore; }
+
+    /**
+        Returns black's score, as determined at the end of the game.
+        @return int
+    */
+    public int getBlackScore () { return this.blackScore; }
+
+    /**
+        Returns the number of stones the given player has captured from the other player.
+        @param Player.Color Color of player who captured the stones.
+        @return int
+    */
+    public int getPrisoners ( Player.Color inColor ) { return ( inColor == Player.Color.BLACK ) ? this.blackPrisoners : this.whitePrisoners; }
+
+    /**
+        Returns if the stone at the given point has been marked dead, at the end of the game.
+        @param int Point to check.
+        @return boolean
+    */
+    public boolean isDead ( int point ) { return GameState.testBit( this.deadStones, point ); }
+
+    /**
+        Returns the bitboard of stones marked dead at the end of the game. The bitboard is the game's own, and must not be changed.
+        @return long[]
+    */
+    public long[] getDeadStones () { return this.deadStones; }
+
+    /**
+        Marks the group of stones at the given point dead, or alive again if it was marked dead, then determines the score again.
+        Dead stones are taken as prisoners by the other player, and their points count as empty when scoring.
+        Only used once the game has ended.
+        @param int Point of a stone in the group.
+        @return void
+    */
+    public void toggleDeadGroup ( int point )
+    {
+
+        if ( !this.gameOver ) { throw new IllegalStateException( "Stones can only be marked dead once the game has ended." ); }
+
+        if ( !this.containsStone( point ) ) { return; }
+
+        long[] locations = this.groups[ this.find( point ) ].getLocations();
+        boolean dead = this.isDead( point );
+
+        for ( int i = 0; i < this.wordCount; i++ )
+        {
+
+            if ( dead ) { this.deadStones[ i ] &= ~locations[ i ]; }
+            else { this.deadStones[ i ] |= locations[ i ]; }
+
+        }
+
+        this.determineTerritoryScore();
+
+    }
+
+    /**
+        Returns the number of moves played, including passes.
+        @return int
+    */
+    public int getMoveCount () { return this.moveCount; }
+
+    /**
+        Returns the point a move was played at, or <code>NO_POINT</code> if the turn was passed.
+        @param int Index of move, starting from the first move of the game.
+        @return int
+    */
+    public int getMove ( int index ) { return this.moves[ index ]; }
+
+    /**
+        Returns the bitboard of stones of the given color that were set up before the first move, or <code>null</code> if the game
+        started from an empty board.
+        @param Player.Color Color of stones.
+        @return long[]
+    */
+    public long[] getStartingStones ( Player.Color inColor ) { return ( inColor == Player.Color.BLACK ) ? this.startingBlackStones : this.startingWhiteStones; }
+
+    /**
+        Returns the color of the player who's turn it was before the first move.
+        @return Player.Color
+    */
+    public Player.Color getStartingTurn () { return this.startingTurn; }
+
+    /**
+        Returns if the turn before the first move was passed.
+        @return boolean
+    */
+    public boolean wasStartingTurnPassed () { return this.startingTurnPassed; }
+
+    /**
+        Plays a move for the current player, then changes the turn to the other player.
+        @param int Point to place a stone at, or <code>NO_POINT</code> to pass the turn.
+        @return boolean If the game has ended.
+    */
+    public boolean playMove ( int point )
+    {
+
+        if ( point != NO_POINT ) { this.addStoneAt( point ); }
+
+        return this.switchTurns( point == NO_POINT );
+
+    }
+
+    /**
+        Places a stone of the current player's color at the given point, capturing any enemy groups it takes the last liberty of.
+        Only the groups next to the point are changed. No stone can be placed once the game has ended.
+        @param int Point to place a stone at.
+        @return void
+    */
+    public void addStoneAt ( int point )
+    {
+
+        if ( this.gameOver ) { throw new IllegalStateException( "No moves can be played once the game has ended." ); }
+
+        //No stones have been captured by this stone yet.
+        for ( int i = 0; i < this.wordCount; i++ ) { this.capturedStones[ i ] = 0; }
+
+        //Legal moves will have to be calculated again for the new position.
+        this.legalMovesCalculated = false;
+
+        //Adds the stone to its player's bitboard and the hash, joining it to the friendly groups next to it.
+        this.placeStone( point, this.turn );
+        this.recordMove( point );
+
+        //Cycling through the four adjacent points again, now that the new stone's group is complete.
+        for ( int direction = ABOVE; direction <= LEFT; direction++ )
+        {
+
+            int neighbour = this.getNeighbour( point, direction );
+
+            //If the adjacent point contains an enemy stone, the new stone takes away one of its group's liberties.
+            if ( neighbour != NO_POINT && this.containsStone( neighbour ) && this.getColorAt( neighbour ) != this.turn )
+            {
+
+                Group enemyGroup = this.groups[ this.find( neighbour ) ];
+
+                enemyGroup.removeLiberty( point );
+
+                //If that was the group's last liberty, the group is captured.
+                if ( enemyGroup.getLibertyCount() == 0 ) { this.removeGroup( enemyGroup ); }
+
+            }
+
+        }
+
+        //Recording the new position, so it can never be repeated.
+        this.history.add( this.hash );
+
+    }
+
+    /**
+        Changes the current turn to opposite player. No turn can be passed once the game has ended.
+        @param boolean If the turn was passed or not.
+        @return boolean If the game has ended.
+    */
+    public boolean switchTurns ( boolean inTurnPassed )
+    {
+
+        if ( this.gameOver ) { throw new IllegalStateException( "No moves can be played once the game has ended." ); }
+
+        //A passed turn is recorded as a move, a placed stone was recorded when it was placed.
+        if ( inTurnPassed ) { this.recordMove( NO_POINT ); }
+
+        //Checks if the last turn was passed, and this turn was passed.
+        if ( this.lastTurnPassed && inTurnPassed )
+        {
+
+            //Two consecutive turns passed ( one from each player ) marks the end of the game. Every stone is alive until marked dead.
+            this.gameOver = true;
+            this.determineTerritoryScore();
+
+            return true;
+
+        }
+
+        //Sets if the last turn was passed to the given value.
+        this.lastTurnPassed = inTurnPassed;
+
+        //Legal moves will have to be calculated again for the other player.
+        this.legalMovesCalculated = false;
+
+        //Changes the turn to other player.
+        if ( this.turn == Player.Color.BLACK ) { this.turn = Player.Color.WHITE; }
+        else { this.turn = Player.Color.BLACK; }
+
+        return false;
+
+    }
+
+    /**
+        Places a stone of the given color at the given point, joining it to the groups of friendly stones next to it.
+        Enemy groups are not changed.
+        @param int Point to place a stone at.
+        @param Player.Color Color of stone.
+        @return void
+    */
+    private void placeStone ( int point, Player.Color inColor )
+    {
+
+        //Places stone on the bitboard of its color.
+        if ( inColor == Player.Color.BLACK ) { GameState.setBit( this.blackStones, point ); }
+        else { GameState.setBit( this.whiteStones, point ); }
+
+        //Adds the stone to the hash of the position, and to the pattern of each point around it.
+        this.hash ^= GameState.getStoneKey( point, inColor );
+        this.setPatternPoint( point, ( inColor == Player.Color.BLACK ) ? PatternTable.BLACK : PatternTable.WHITE );
+
+        //Starting a new Group with this point, as a tree of its own.
+        this.parent[ point ] = point;
+        this.rank[ point ] = 0;
+        this.groups[ point ].reset( point );
+
+        //Cycling through the four adjacent points.
+        for ( int direction = ABOVE; direction <= LEFT; direction++ )
+        {
+
+            int neighbour = this.getNeighbour( point, direction );
+
+            //If the adjacent point contains a friendly stone, combine its group with the new stone's group.
+            if ( neighbour != NO_POINT && this.getColorAt( neighbour ) == inColor ) { this.union( point, neighbour ); }
+
+        }
+
+    }
+
+    /**
+        Sets the given point to the given value in the pattern of each of the eight points around it.
+        @param int Point that changed.
+        @param int New value of point, such as <code>PatternTable.BLACK</code>.
+        @return void
+    */
+    private void setPatternPoint ( int point, int value )
+    {
+
+        for ( int i = 0; i < 8; i++ )
+        {
+
+            int surroundingPoint = this.geometry.getSurroundingPoint( point, i );
+
+            //Seen from the surrounding point, this point is in the opposite direction.
+            if ( surroundingPoint != NO_POINT )
+            {
+
+                int shift = 2 * ( 7 - i );
+
+                this.patternKeys[ surroundingPoint ] = ( char ) ( ( this.patternKeys[ surroundingPoint ] & ~( 3 << shift ) ) | ( value << shift ) );
+
+            }
+
+        }
+
+    }
+
+    /**
+        Adds a move to the end of the list of moves played, making the list larger if it is full.
+        @param int Point the move was played at, or <code>NO_POINT</code> for a pass.
+        @return void
+    */
+    private void recordMove ( int point )
+    {
+
+        if ( this.moveCount == this.moves.length ) { this.moves = Arrays.copyOf( this.moves, this.moves.length * 2 ); }
+
+        this.moves[ this.moveCount++ ] = point;
+
+    }
+
+    /**
+        Removes a captured group from the board, giving its points back as liberties to the groups around it.
+        @param Group Group to remove.
+        @return void
+    */
+    private void removeGroup ( Group inGroup )
+    {
+
+        long[] locations = inGroup.getLocations();
+
+        //The group's stones become prisoners of the other player.
+        if ( inGroup.getColor() == Player.Color.WHITE ) { this.blackPrisoners += inGroup.getSize(); }
+        else { this.whitePrisoners += inGroup.getSize(); }
+
+        //Removes the group's stones from the hash of the position.
+        this.hash ^= inGroup.getHash();
+
+        //Cycling through words of the given Group's bitset.
+        for ( int i = 0; i < locations.length; i++ )
+        {
+
+            //Removes all stones within this word from the board, and from the union-find trees.
+            this.blackStones[ i ] &= ~locations[ i ];
+            this.whiteStones[ i ] &= ~locations[ i ];
+            this.capturedStones[ i ] |= locations[ i ];
+
+            for ( long bits = locations[ i ]; bits != 0; bits &= bits - 1 )
+            {
+
+                int element = ( i << 6 ) + Long.numberOfTrailingZeros( bits );
+
+                this.parent[ element ] = element;
+                this.rank[ element ] = 0;
+                this.setPatternPoint( element, PatternTable.EMPTY );
+
+            }
+
+        }
+
+        //Cycling through the removed stones again, now that they are all off the board.
+        for ( int i = 0; i < locations.length; i++ )
+        {
+
+            for ( long bits = locations[ i ]; bits != 0; bits &= bits - 1 )
+            {
+
+                int element = ( i << 6 ) + Long.numberOfTrailingZeros( bits );
+
+                //Every group next to the removed stone gains it as a liberty.
+                for ( int direction = ABOVE; direction <= LEFT; direction++ )
+                {
+
+                    Group neighbouringGroup = this.getGroupAt( this.getNeighbour( element, direction ) );
+
+                    if ( neighbouringGroup != null ) { neighbouringGroup.addLiberty( element ); }
+
+                }
+
+            }
+
+        }
+
+    }
+
+    /**
+        Determines if a move is illegal, as defined by the rules of Go.
+        Only the four neighbouring points are looked at, and no objects are created, so this is cheap enough to call on every
+        mouse movement.
+        @param int Point the current player would move to.
+        @return boolean
+    */
+    public boolean isMoveIllegal ( int point )
+    {
+
+        //A stone can never be placed on top of another stone.
+        if ( this.containsStone( point ) ) { return true; }
+
+        boolean hasEmptyNeighbour = false;
+        boolean friendlyGroupHasOtherLiberties = false;
+        boolean wouldCaptureAnEnemyGroup = false;
+
+        //Hash of the position after the stone is placed.
+        long newHash = this.hash ^ GameState.getStoneKey( point, this.turn );
+
+        //Cycling through the four adjacent points.
+        for ( int direction = ABOVE; direction <= LEFT; direction++ )
+        {
+
+            int neighbour = this.getNeighbour( point, direction );
+
+            if ( neighbour == NO_POINT ) { continue; }
+
+            //An empty neighbour is a liberty of the new stone.
+            if ( !this.containsStone( neighbour ) )
+            {
+
+                hasEmptyNeighbour = true;
+                continue;
+
+            }
+
+            Group neighbouringGroup = this.groups[ this.find( neighbour ) ];
+
+            //A friendly group with another liberty shares it with the new stone.
+            if ( neighbouringGroup.getColor() == this.turn )
+            {
+
+                if ( neighbouringGroup.getLibertyCount() > 1 ) { friendlyGroupHasOtherLiberties = true; }
+
+            }
+            //An enemy group with this point as its only liberty would be captured, removing its stones from the hash.
+            //A group next to the point on two sides is only counted once.
+            else if ( neighbouringGroup.getLibertyCount() == 1 && !this.isSeenFromEarlierDirection( point, direction, neighbouringGroup ) )
+            {
+
+                wouldCaptureAnEnemyGroup = true;
+                newHash ^= neighbouringGroup.getHash();
+
+            }
+
+        }
+
+        //A stone with no liberties that does not capture anything would be suicide, which is illegal.
+        if ( !hasEmptyNeighbour && !friendlyGroupHasOtherLiberties && !wouldCaptureAnEnemyGroup ) { return true; }
+
+        //Recreating a position that has already occurred violates the positional superko rule, which covers the Ko rule.
+        return this.history.contains( newHash );
+
+    }
+
+    /**
+        Returns a bitboard of every point the current player can legally move to.
+        Every empty point is checked in a single pass, and the result is kept until the next move or pass.
+        The returned array is reused, and must not be changed.
+        @return long[]
+    */
+    public long[] getLegalMoves ()
+    {
+
+        if ( this.legalMovesCalculated ) { return this.legalMoves; }
+
+        //Cycling through the empty points of each word.
+        for ( int i = 0; i < this.wordCount; i++ )
+        {
+
+            this.legalMoves[ i ] = 0;
+
+            for ( long bits = this.getEmptyPoints( i ); bits != 0; bits &= bits - 1 )
+            {
+
+                int point = ( i << 6 ) + Long.numberOfTrailingZeros( bits );
+
+                if ( !this.isMoveIllegal( point ) ) { this.legalMoves[ i ] |= 1L << point; }
+
+            }
+
+        }
+
+        this.legalMovesCalculated = true;
+
+        return this.legalMoves;
+
+    }
+
+    /**
+        Fills the given array with every point the current player can legally move to.
+        @param int[] Array to fill. Must have room for every point on the board.
+        @return int Number of legal moves.
+    */
+    public int getLegalMoves ( int[] outPoints )
+    {
+
+        long[] moves = this.getLegalMoves();
+        int count = 0;
+
+        for ( int i = 0; i < this.wordCount; i++ )
+        {
+
+            for ( long bits = moves[ i ]; bits != 0; bits &= bits - 1 ) { outPoints[ count++ ] = ( i << 6 ) + Long.numberOfTrailingZeros( bits ); }
+
+        }
+
+        return count;
+
+    }
+
+    /**
+        Returns if the current player can legally move to the given point, using the cached legal moves.
+        @param int Point to check.
+        @return boolean
+    */
+    public boolean isLegalMove ( int point ) { return GameState.testBit( this.getLegalMoves(), point ); }
+
+    /**
+        Returns if the given group is next to the given point in any direction before the given direction.
+        @param int Point to look around.
+        @param int Direction the group was found in.
+        @param Group Group to look for.
+        @return boolean
+    */
+    private boolean isSeenFromEarlierDirection ( int point, int direction, Group inGroup )
+    {
+
+        for ( int earlierDirection = ABOVE; earlierDirection < direction; earlierDirection++ )
+        {
+
+            if ( this.getGroupAt( this.getNeighbour( point, earlierDirection ) ) == inGroup ) { return true; }
+
+        }
+
+        return false;
+
+    }
+
+    /**
+        Marks the given stones dead, along with any already marked dead, then determines the score again.
+        Only used once the game has ended.
+        @param long[] Bitboard of stones to mark dead.
+        @return void
+    */
+    public void markDeadStones ( long[] inStones )
+    {
+
+        if ( !this.gameOver ) { throw new IllegalStateException( "Stones can only be marked dead once the game has ended." ); }
+
+        for ( int i = 0; i < this.wordCount; i++ ) { this.deadStones[ i ] |= inStones[ i ] & ( this.blackStones[ i ] | this.whiteStones[ i ] ); }
+
+        this.determineTerritoryScore();
+
+    }
+
+    /**
+        Determines the score of the game through area scoring: each player scores a point for every one of their living stones,
+        and for every empty point in a region of empty points that borders only their living stones.
+        Each empty region is flood filled once, so the score is found in time proportional to the size of the board, and
+        nothing is allocated after the first call, so the score can be determined as often as needed.
+        @return void
+    */
+    public void determineScore () { this.fillRegions( true ); }
+
+    /**
+        Determines the score of the game through territory scoring: each player scores a point for every empty point in a
+        region of empty points that borders only their living stones, and for every prisoner they have taken. Stones marked dead
+        are taken as prisoners, and their points counted as empty. Like <code>determineScore</code>, this takes a single pass.
+        @return void
+    */
+    public void determineTerritoryScore () { this.fillRegions( false ); }
+
+    /**
+        Flood fills every region of empty points, and points of dead stones, giving each region to the player who's living
+        stones are the only ones around it. Sets both players' scores.
+        @param boolean If living stones score, as in area scoring, rather than prisoners, as in territory scoring.
+        @return void
+    */
+    private void fillRegions ( boolean inAreaScoring )
+    {
+
+        int pointCount = this.getPointCount();
+
+        //Creating the arrays used to fill regions the first time the score is determined. They are reused after that.
+        if ( this.fillMarks == null )
+        {
+
+            this.fillStack = new int[ pointCount ];
+            this.fillMarks = new int[ pointCount ];
+            this.livingStones = new long[ this.wordCount ];
+
+        }
+
+        //Points are marked with the number of the fill, so marks left by earlier fills never need to be cleared.
+        if ( ++this.fillGeneration == 0 )
+        {
+
+            Arrays.fill( this.fillMarks, 0 );
+            this.fillGeneration = 1;
+
+        }
+
+        int generation = this.fillGeneration;
+        int black = 0;
+        int white = 0;
+
+        //Scoring each player's living stones, or the prisoners they have taken, including the other player's dead stones.
+        for ( int i = 0; i < this.wordCount; i++ )
+        {
+
+            this.livingStones[ i ] = ( this.blackStones[ i ] | this.whiteStones[ i ] ) & ~this.deadStones[ i ];
+
+            if ( inAreaScoring )
+            {
+
+                black += Long.bitCount( this.blackStones[ i ] & ~this.deadStones[ i ] );
+                white += Long.bitCount( this.whiteStones[ i ] & ~this.deadStones[ i ] );
+
+            }
+            else
+            {
+
+                black += Long.bitCount( this.whiteStones[ i ] & this.deadStones[ i ] );
+                white += Long.bitCount( this.blackStones[ i ] & this.deadStones[ i ] );
+
+            }
+
+        }
+
+        if ( !inAreaScoring )
+        {
+
+            black += this.blackPrisoners;
+            white += this.whitePrisoners;
+
+        }
+
+        for ( int start = 0; start < pointCount; start++ )
+        {
+
+            if ( this.fillMarks[ start ] == generation || GameState.testBit( this.livingStones, start ) ) { continue; }
+
+            //Filling the region containing this point, noting the colors of the living stones around it.
+            boolean bordersBlack = false;
+            boolean bordersWhite = false;
+            int size = 0;
+            int top = 0;
+
+            this.fillMarks[ start ] = generation;
+            this.fillStack[ top++ ] = start;
+
+            while ( top > 0 )
+            {
+
+                int point = this.fillStack[ --top ];
+                size++;
+
+                for ( int direction = ABOVE; direction <= LEFT; direction++ )
+                {
+
+                    int neighbour = this.geometry.getNeighbour( point, direction );
+
+                    if ( neighbour == NO_POINT ) { continue; }
+
+                    if ( !GameState.testBit( this.livingStones, neighbour ) )
+                    {
+
+                        if ( this.fillMarks[ neighbour ] != generation )
+                        {
+
+                            this.fillMarks[ neighbour ] = generation;
+                            this.fillStack[ top++ ] = neighbour;
+
+                        }
+
+                    }
+                    else if ( GameState.testBit( this.blackStones, neighbour ) ) { bordersBlack = true; }
+                    else { bordersWhite = true; }
+
+                }
+
+            }
+
+            //Regions bordering both colors, or neither, score for no one.
+            if ( bordersBlack && !bordersWhite ) { black += size; }
+            else if ( bordersWhite && !bordersBlack ) { white += size; }
+
+        }
+
+        this.blackScore = black;
+        this.whiteScore = white;
+
+    }
+
+    /**
+        Returns the point at the root of the union-find tree containing the given point.
+        Halves the path to the root on the way, keeping trees shallow.
+        @param int Point to find the root of.
+        @return int
+    */
+    private int find ( int point )
+    {
+
+        while ( this.parent[ point ] != point )
+        {
+
+            this.parent[ point ] = this.parent[ this.parent[ point ] ];
+            point = this.parent[ point ];
+
+        }
+
+        return point;
+
+    }
+
+    /**
+        Returns if the given point contains a stone at the root of its group's union-find tree.
+        @param int Point to check.
+        @return boolean
+    */
+    private boolean isRoot ( int point ) { return this.parent[ point ] == point && this.containsStone( point ); }
+
+    /**
+        Combines the groups containing the two given points into a single group.
+        The shorter tree is attached below the root of the taller tree, and its group is merged into the taller tree's group.
+        @param int Point in first group.
+        @param int Point in second group.
+        @return void
+    */
+    private void union ( int point1, int point2 )
+    {
+
+        int root1 = this.find( point1 );
+        int root2 = this.find( point2 );
+
+        //Points are already in the same group.
+        if ( root1 == root2 ) { return; }
+
+        //Making sure root1 is the root of the taller tree.
+        if ( this.rank[ root1 ] < this.rank[ root2 ] )
+        {
+
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+
+        }
+
+        //Attaching shorter tree below taller tree.
+        this.parent[ root2 ] = root1;
+        if ( this.rank[ root1 ] == this.rank[ root2 ] ) { this.rank[ root1 ]++; }
+
+        //Merging groups, the second group no longer exists on its own.
+        this.groups[ root1 ].merge( this.groups[ root2 ] );
+
+    }
+
+    /**
+        Returns if the bit for the given point is set in the given bitboard.
+        @param long[] Bitboard.
+        @param int Point.
+        @return boolean
+    */
+    static boolean testBit ( long[] bits, int point ) { return ( bits[ point >>> 6 ] & ( 1L << point ) ) != 0; }
+
+    /**
+        Sets the bit for the given point in the given bitboard.
+        @param long[] Bitboard.
+        @param int Point.
+        @return void
+    */
+    static void setBit ( long[] bits, int point ) { bits[ point >>> 6 ] |= 1L << point; }
+
+    /**
+        Clears the bit for the given point in the given bitboard.
+        @param long[] Bitboard.
+        @param int Point.
+        @return void
+    */
+    static void clearBit ( long[] bits, int point ) { bits[ point >>> 6 ] &= ~( 1L << point ); }
+
+    /**
+        Returns the number of bits set in the given bitboard.
+        @param long[] Bitboard.
+        @return int
+    */
+    static int countBits ( long[] bits )
+    {
+
+        int count = 0;
+
+        for ( int i = 0; i < bits.length; i++ ) { count += Long.bitCount( bits[ i ] ); }
+
+        return count;
+
+    }
+
+    /**
+        Returns the point of the lowest bit set in the given bitboard, or <code>NO_POINT</code> if no bit is set.
+        @param long[] Bitboard.
+        @return int
+    */
+    static int getFirstBit ( long[] bits )
+    {
+
+        for ( int i = 0; i < bits.length; i++ )
+        {
+
+            if ( bits[ i ] != 0 ) { return ( i << 6 ) + Long.numberOfTrailingZeros( bits[ i ] ); }
+
+        }
+
+        return NO_POINT;
+
+    }
+
+}
\ No newline at end of file
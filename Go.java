@@ -5,15 +5,23 @@ import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.InputEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JMenuBar;
 import javax.swing.JMenu;
@@ -22,7 +30,10 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSeparator;
 import javax.swing.KeyStroke;
-import java.util.ArrayList;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 /**
     Main window of program. Contains current playing Board, handler of UI and IO of program.
@@ -33,11 +44,161 @@ public class Go extends JFrame
 {
 
     public static final int BORDER_BUFFER = 25;
+    
+    //Start of the names of the save files games are kept in until they are given a name. Each game has a file of its own,
+    //named after the time it was started, so a game left unnamed is never written over by the next.
+    private static final String AUTOSAVE_NAME = "Autosave";
+    private static final String AUTOSAVE_TIME_FORMAT = "yyyy-MM-dd HH.mm.ss";
+    
+    //Folder save files are kept in.
+    private static final String SAVES_DIRECTORY = "Saved Games";
+    
     private static String OS_NAME;
     private Board gameBoard;
     private JPanel mainPanel;
     private int boardSize;
     private final Tutorial tutorial;
+    private SaveCatalog catalog;
+    private HashSet<String> autosaveNames = new HashSet<String>();
+    
+    //Thread that reads and writes files, one task at a time, so the window is never left waiting for the disk.
+    private final ExecutorService fileExecutor = Executors.newSingleThreadExecutor( new ThreadFactory () {
+        
+        public Thread newThread ( Runnable task )
+        {
+            
+            Thread thread = new Thread( task, "File tasks" );
+            thread.setDaemon( true );
+            
+            return thread;
+            
+        }
+        
+    });
+    
+    /**
+        Class for a task that reads or writes files on the file thread, then finishes on the event dispatch thread.
+        Tasks that take more than a moment show their progress in a dialog, which lets the user cancel them.
+    */
+    private abstract class FileTask<T> extends SwingWorker<T, Void> implements ProgressListener
+    {
+        
+        private String description;
+        private String failureMessage;
+        private ProgressMonitor monitor;
+        private Timer cancelTimer;
+        
+        /**
+            Constructor.
+            @param String Description of task shown with its progress, or <code>null</code> to not show progress.
+            @param String Message printed if the task fails.
+        */
+        public FileTask ( String inDescription, String inFailureMessage )
+        {
+            
+            this.description = inDescription;
+            this.failureMessage = inFailureMessage;
+            
+        }
+        
+        /**
+            Reads or writes files. Runs on the file thread.
+            @return T Result given to <code>finish</code>.
+        */
+        protected abstract T perform () throws IOException;
+        
+        /**
+            Uses the result of the task. Runs on the event dispatch thread, only if the task was not cancelled and did not fail.
+            @param T Result of <code>perform</code>.
+            @return void
+        */
+        protected void finish ( T result ) {}
+        
+        /**
+            Starts the task, after any tasks already started.
+            @return void
+        */
+        public void start ()
+        {
+            
+            if ( this.description != null )
+            {
+                
+                //Creating progress dialog, shown if the task takes more than a moment.
+                this.monitor = new ProgressMonitor( Go.this, this.description, null, 0, 100 );
+                this.monitor.setMillisToDecideToPopup( 250 );
+                this.monitor.setMillisToPopup( 500 );
+                
+                //Showing progress as the task reports it.
+                this.addPropertyChangeListener( new PropertyChangeListener () {
+                    
+                    public void propertyChange ( PropertyChangeEvent e )
+                    {
+                        
+                        if ( "progress".equals( e.getPropertyName() ) ) { FileTask.this.monitor.setProgress( ( Integer ) e.getNewValue() ); }
+                        
+                    }
+                    
+                });
+                
+                //Cancelling the task when the user presses the dialog's cancel button. Interrupting the task stops it at its next report of progress.
+                this.cancelTimer = new Timer( 100, new ActionListener () {
+                    
+                    public void actionPerformed ( ActionEvent e )
+                    {
+                        
+                        if ( FileTask.this.monitor.isCanceled() ) { FileTask.this.cancel( true ); }
+                        
+                    }
+                    
+                });
+                
+                this.cancelTimer.start();
+                
+            }
+            
+            Go.this.fileExecutor.execute( this );
+            
+        }
+        
+        /**
+            Called by the task as it makes progress, on the file thread.
+            @param long Amount of the task that has been done.
+            @param long Amount of the whole task.
+            @return void
+        */
+        public void progressMade ( long done, long total ) { this.setProgress( ( int ) ( 100 * done / Math.max( total, 1 ) ) ); }
+        
+        /**
+            Runs the task on the file thread.
+            @return T
+        */
+        protected T doInBackground () throws IOException { return this.perform(); }
+        
+        /**
+            Closes the progress dialog and hands the result on. Runs on the event dispatch thread.
+            @return void
+        */
+        protected void done ()
+        {
+            
+            if ( this.monitor != null )
+            {
+                
+                this.cancelTimer.stop();
+                this.monitor.close();
+                
+            }
+            
+            if ( this.isCancelled() ) { return; }
+            
+            try { this.finish( this.get() ); }
+            catch ( ExecutionException e ) { System.out.println( this.failureMessage ); }
+            catch ( InterruptedException e ) { System.out.println( this.failureMessage ); }
+            
+        }
+        
+    }
 
     /**
         Main method. Runs on execution of program.
@@ -82,8 +243,25 @@ public class Go extends JFrame
             final int FRAME_WIDTH = BORDER_BUFFER + ( Board.SIZE_OF_SQUARE * this.boardSize ) - 3;
             final int FRAME_HEIGHT = BORDER_BUFFER + ( Board.SIZE_OF_SQUARE * this.boardSize ) + 18;
 
-            //Creating a board for new game.
-            this.gameBoard = new Board( this.boardSize );
+            //Creating a board for new game, and keeping it saved as it is played.
+            this.gameBoard = Board.createNewGame( this.boardSize );
+            this.startJournal( null );
+            
+            //Writing any moves still waiting to be saved when the program exits, and finishing any files being written.
+            Runtime.getRuntime().addShutdownHook( new Thread () {
+                
+                public void run ()
+                {
+                    
+                    Go.this.closeJournal();
+                    Go.this.fileExecutor.shutdown();
+                    
+                    try { Go.this.fileExecutor.awaitTermination( 5, TimeUnit.SECONDS ); }
+                    catch ( InterruptedException e ) {}
+                    
+                }
+                
+            });
 
             //Creating panel for frame, adding board. Adding panel to frame.
             mainPanel = new JPanel( null );
@@ -108,6 +286,8 @@ public class Go extends JFrame
             JMenuItem newGameItem = new JMenuItem( "New", KeyEvent.VK_N );
             JMenuItem saveGameItem = new JMenuItem( "Save", KeyEvent.VK_S );
             JMenuItem loadGameItem = new JMenuItem( "Open", KeyEvent.VK_L );
+            JMenuItem importItem = new JMenuItem( "Import SGF..." );
+            JMenuItem exportItem = new JMenuItem( "Export SGF..." );
             
             //If user is on a Mac.
             if ( OS_NAME.equals( "Mac" ) )
@@ -143,7 +323,7 @@ public class Go extends JFrame
                     {
                         
                         //Replace the board with a new one.
-                        Go.this.replaceBoard( new Board( boardSize ) );
+                        Go.this.replaceBoard( Board.createNewGame( boardSize ) );
                         
                     }
                     
@@ -163,11 +343,26 @@ public class Go extends JFrame
 
             });
 
+            importItem.addActionListener( new ActionListener () {
+
+                public void actionPerformed ( ActionEvent e ) { Go.this.importSgf(); }
+
+            });
+
+            exportItem.addActionListener( new ActionListener () {
+
+                public void actionPerformed ( ActionEvent e ) { Go.this.exportSgf(); }
+
+            });
+
             //Adding menu items to the "File" menu.
             fileMenu.add( newGameItem );
             fileMenu.add( loadGameItem );
             fileMenu.add( new JSeparator() );
             fileMenu.add( saveGameItem );
+            fileMenu.add( new JSeparator() );
+            fileMenu.add( importItem );
+            fileMenu.add( exportItem );
 
             //If user is not on a Mac ( assuming user is on Windows ).
             if ( !Go.OS_NAME.equals( "Mac" ) )
@@ -286,8 +481,9 @@ public class Go extends JFrame
                 //Get save game name from user.
                 saveGameName = JOptionPane.showInputDialog( null, "Name your save: ", "Save Game", JOptionPane.PLAIN_MESSAGE );
 
-                //Checking if user gave the saved game a name.
+                //Checking if user gave the saved game a name, which is not kept for autosaves.
                 if ( saveGameName instanceof String && saveGameName.equals( "" ) ) { JOptionPane.showMessageDialog( null, "Please give your save a name.", "Error", JOptionPane.ERROR_MESSAGE ); }
+                else if ( saveGameName instanceof String && Go.isAutosaveName( saveGameName ) ) { JOptionPane.showMessageDialog( null, "Names starting with \"" + AUTOSAVE_NAME + "\" are kept for games that have not been saved.", "Error", JOptionPane.ERROR_MESSAGE ); }
                 else { done = true; }
                 
                 //User closed dialog.
@@ -297,118 +493,302 @@ public class Go extends JFrame
             
         }
         
-        try
-        {
-
-            //Writing Board of current game to save file.
-            FileOutputStream fileOut = new FileOutputStream( new File( "Saved Games/" + saveGameName + ".gosave" ) );
-            ObjectOutputStream objectOut = new ObjectOutputStream( fileOut );
-
-            objectOut.writeObject( this.gameBoard );
-
-            objectOut.close();
+        final String saveName = saveGameName;
+        final File saveFile = this.getSaveFile( saveName );
+        MoveJournal journal = this.gameBoard.getJournal();
         
-
-        }
-        catch ( FileNotFoundException e )
+        //Writing the moves of current game to save file. A journal moves the game to the file, and keeps it up to date from then on.
+        //Either way, the game is encoded now, and written while it goes on being played.
+        if ( journal != null )
         {
-
-            System.out.println( "Encountered a problem while saving." );
-
+            
+            final MoveJournal savingJournal = journal;
+            final String previousName = this.getSaveName( journal.getFile() );
+            
+            try { journal.compact( saveFile ); }
+            catch ( IOException e )
+            {
+                
+                System.out.println( "Encountered a problem while saving." );
+                return;
+                
+            }
+            
+            //The journal's thread writes the game once it has been asked to, so this task shows no progress, and cannot be cancelled.
+            new FileTask<Void>( null, "Encountered a problem while saving." ) {
+                
+                protected Void perform () throws IOException
+                {
+                    
+                    //Waiting for the journal to write the game.
+                    savingJournal.flush();
+                    
+                    //The game's previous file, such as the autosave, is deleted when the game moves to a new file.
+                    if ( !previousName.equals( saveName ) ) { Go.this.getCatalog().remove( previousName ); }
+                    
+                    //Describing the saved game in the catalog, for the load game dialog.
+                    Go.this.getCatalog().update( saveName );
+                    
+                    return null;
+                    
+                }
+                
+            }.start();
+            
         }
-        catch ( IOException e )
+        else
         {
-
-            System.out.println( "Encountered a problem while saving." );
-
+            
+            final ByteBuffer snapshot = SaveFile.encode( this.gameBoard.getGameState() );
+            
+            new FileTask<Void>( "Saving " + saveName + "...", "Encountered a problem while saving." ) {
+                
+                protected Void perform () throws IOException
+                {
+                    
+                    SaveFile.write( snapshot, saveFile, this );
+                    
+                    //Describing the saved game in the catalog, for the load game dialog.
+                    Go.this.getCatalog().update( saveName );
+                    
+                    return null;
+                    
+                }
+                
+            }.start();
+            
         }
         
         //Setting board's save name.
-        this.gameBoard.setSaveName( saveGameName );
+        this.gameBoard.setSaveName( saveName );
         
     }
 
     /**
-        Gets input from user and loads inputted game.
+        Gets input from user and loads inputted game. The list of games and the game itself are read on the file thread.
         @return void
     */
     private final void loadGame ()
     {
 
-        try
-        {
+        new FileTask<ArrayList<SaveCatalog.Entry>>( null, "Encountered a problem while loading game." ) {
+
+            protected ArrayList<SaveCatalog.Entry> perform () { return Go.this.getCatalog().getEntries(); }
+
+            protected void finish ( ArrayList<SaveCatalog.Entry> entries )
+            {
+
+                //Displaying load game dialog to user, listing the games in the catalog, getting input.
+                SaveCatalog.Entry gameToLoad = LoadGameDialog.showLoadDialog( entries );
+
+                //If user selected an valid file.
+                if ( gameToLoad instanceof SaveCatalog.Entry ) { Go.this.loadGame( gameToLoad.getName() ); }
+
+            }
+
+        }.start();
+
+    }
+
+    /**
+        Loads the given saved game on the file thread, then replaces the current board with it.
+        @param String Name of save.
+        @return void
+    */
+    private final void loadGame ( final String saveName )
+    {
+
+        final File saveFile = this.getSaveFile( saveName );
+
+        new FileTask<GameState>( "Loading " + saveName + "...", "Encountered a problem while loading game." ) {
+
+            protected GameState perform () throws IOException { return SaveFile.read( saveFile, this ); }
+
+            protected void finish ( GameState state )
+            {
+
+                //Replacing current board with a board showing the saved game.
+                Board loadedBoard = new Board( state );
+
+                //Save files are named after their save, so the game is saved to the same file again.
+                //A game recovered from an autosave has not been named yet, and goes on being kept in the same autosave.
+                if ( Go.isAutosaveName( saveName ) ) { Go.this.replaceBoard( loadedBoard, saveName ); }
+                else
+                {
+
+                    loadedBoard.setSaveName( saveName );
+                    Go.this.replaceBoard( loadedBoard );
+
+                }
+
+            }
+
+        }.start();
+
+    }
+
+    /**
+        Gets an SGF file from user and loads a game from it. Files holding more than one game ask the user which game to load.
+        The file is read on the file thread.
+        @return void
+    */
+    private final void importSgf ()
+    {
+
+        //Asking user for file.
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter( new FileNameExtensionFilter( "SGF files", SgfFile.EXTENSION.substring( 1 ) ) );
+
+        if ( fileChooser.showOpenDialog( this ) != JFileChooser.APPROVE_OPTION ) { return; }
+
+        final File selectedFile = fileChooser.getSelectedFile();
+
+        new FileTask<SgfFile>( "Reading " + selectedFile.getName() + "...", "Encountered a problem while importing game." ) {
+
+            private int gameCount;
+
+            protected SgfFile perform () throws IOException
+            {
+
+                //Counting the games in the file.
+                SgfFile sgfFile = new SgfFile( selectedFile );
+                sgfFile.setProgressListener( this );
+                this.gameCount = sgfFile.countGames();
 
-            //Determining the saved games directory.
-            File savesDirectory = new File( this.getSavesDirectory() );
+                return sgfFile;
 
-            ArrayList<File> saveFiles = new ArrayList<File>();
+            }
 
-            //Getting all save files from directory.
-            for ( File element : savesDirectory.listFiles() )
+            protected void finish ( SgfFile sgfFile )
             {
 
-                String fileName = element.getName();
+                int gameNumber = 1;
+
+                if ( this.gameCount == 0 )
+                {
+
+                    JOptionPane.showMessageDialog( null, "This file does not contain any games.", "Error", JOptionPane.ERROR_MESSAGE );
+                    return;
 
-                String fileExtension = fileName.substring( fileName.lastIndexOf( "." ) );
+                }
 
-                if ( fileExtension.equals( ".gosave" ) )
+                //Asking user which game to load, if there is more than one.
+                if ( this.gameCount > 1 )
                 {
 
-                    saveFiles.add( element );
+                    String input = JOptionPane.showInputDialog( null, "This file contains " + this.gameCount + " games. Which game would you like to open?", "Import SGF", JOptionPane.PLAIN_MESSAGE );
+
+                    //User closed dialog.
+                    if ( !( input instanceof String ) ) { return; }
+
+                    try { gameNumber = Integer.parseInt( input.trim() ); }
+                    catch ( NumberFormatException e ) { gameNumber = 0; }
+
+                    if ( gameNumber < 1 || gameNumber > this.gameCount )
+                    {
+
+                        JOptionPane.showMessageDialog( null, "Please enter a number from 1 to " + this.gameCount + ".", "Error", JOptionPane.ERROR_MESSAGE );
+                        return;
+
+                    }
 
                 }
 
+                Go.this.importSgf( sgfFile, gameNumber );
+
             }
 
-            //Displaying load game dialog to user, getting input.
-            File gameToLoad = LoadGameDialog.showLoadDialog( saveFiles );
+        }.start();
+
+    }
+
+    /**
+        Reads the given game of an SGF file on the file thread, then replaces the current board with it.
+        @param SgfFile File to read game from.
+        @param int Number of game in file, starting from 1.
+        @return void
+    */
+    private final void importSgf ( final SgfFile sgfFile, final int gameNumber )
+    {
+
+        new FileTask<GameState>( "Importing game " + gameNumber + "...", "Encountered a problem while importing game." ) {
 
-            //If user selected an valid file.
-            if ( gameToLoad instanceof File )
+            protected GameState perform () throws IOException
             {
 
-                //Reading file in, replacing current board with board saved in file.
-                FileInputStream fileIn = new FileInputStream( gameToLoad );
-                ObjectInputStream objectIn = new ObjectInputStream( fileIn );
+                sgfFile.setProgressListener( this );
 
-                this.replaceBoard( ( Board ) objectIn.readObject() );
+                //Skipping the games before the chosen game, without playing their moves.
+                for ( int i = 1; i < gameNumber; i++ ) { sgfFile.skipGame(); }
 
-                objectIn.close();
+                return sgfFile.nextGame();
 
             }
 
-        }
-        catch ( ClassNotFoundException e )
-        {
+            //Replacing current board with a board showing the imported game. The game has not been saved yet.
+            protected void finish ( GameState state ) { Go.this.replaceBoard( new Board( state ) ); }
 
-            System.out.println( "Save file appears to be corrupt." );
+        }.start();
 
-        }
-        catch ( FileNotFoundException e )
-        {
+    }
 
-            System.out.println( "Encountered a problem while loading game." );
+    /**
+        Gets a file name from user and writes the current game to it as SGF. The game is encoded now, and written on the file thread.
+        @return void
+    */
+    private final void exportSgf ()
+    {
 
-        }
-        catch ( IOException e )
-        {
+        //Asking user for file.
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter( new FileNameExtensionFilter( "SGF files", SgfFile.EXTENSION.substring( 1 ) ) );
 
-            System.out.println( "Encountered a problem while loading game." );
+        if ( fileChooser.showSaveDialog( this ) != JFileChooser.APPROVE_OPTION ) { return; }
 
-        }
+        File selectedFile = fileChooser.getSelectedFile();
+
+        //Adding extension, if user did not give one.
+        if ( !selectedFile.getName().toLowerCase().endsWith( SgfFile.EXTENSION ) ) { selectedFile = new File( selectedFile.getPath() + SgfFile.EXTENSION ); }
+
+        final File sgfFile = selectedFile;
+        final ByteBuffer snapshot = SgfFile.encode( this.gameBoard.getGameState() );
+
+        new FileTask<Void>( "Exporting " + sgfFile.getName() + "...", "Encountered a problem while exporting game." ) {
+
+            protected Void perform () throws IOException
+            {
+
+                SaveFile.write( snapshot, sgfFile, this );
+
+                return null;
+
+            }
+
+        }.start();
 
     }
 
+    /**
+        Replaces board currently in this frame. A game that has not been saved is kept in a new autosave.
+        @param Board <code>Board</code> to replace current one with.
+        @return void
+    */
+    public void replaceBoard ( Board inBoard ) { this.replaceBoard( inBoard, null ); }
+
     /**
         Replaces board currently in this frame.
         @param Board <code>Board</code> to replace current one with.
+        @param String Name of autosave to keep the game in if it has not been saved, or <code>null</code> for a new autosave.
         @return void
     */
-    public void replaceBoard ( Board inBoard )
+    private void replaceBoard ( Board inBoard, String inAutosaveName )
     {
 
-        //Removing current board from the frame.
+        //Removing current board from the frame, and finishing saving its game.
         this.mainPanel.remove( this.gameBoard );
+        this.gameBoard.stopMarking();
+        this.gameBoard.stopComputer();
+        this.closeJournal();
 
         //Drawing an empty board ( removes pieces in play during previous game ).
         this.repaint();
@@ -416,8 +796,9 @@ public class Go extends JFrame
         //Add new board to frame.
         this.mainPanel.add( inBoard );
 
-        //Setting this game's current board to input board.
+        //Setting this game's current board to input board, and keeping it saved as it is played.
         this.gameBoard = inBoard;
+        this.startJournal( inAutosaveName );
         
         this.boardSize = this.gameBoard.getBoardSize();
         
@@ -432,31 +813,167 @@ public class Go extends JFrame
     }
 
     /**
-        Gets current directory of this program.
-        @return String
+        Starts keeping the current board's game saved after every move, in its save file, or in an autosave if it has not
+        been saved yet. The game is written, and described in the catalog, on the file thread.
+        @param String Name of autosave to keep the game in if it has not been saved, or <code>null</code> for a new autosave.
+        @return void
     */
-    private String getSavesDirectory ()
+    private void startJournal ( String inAutosaveName )
     {
-
-        //Making file in program's current directory to determine path to that directory.
-        String currentDirectory = new File( "File Used To Get Current Directory" ).getAbsolutePath();
-
-        //Returning string containing program's current directory.
-        if ( Go.OS_NAME.equals( "Mac" ) )
-        {
+        
+        String autosaveName = ( inAutosaveName != null ) ? inAutosaveName : this.createAutosaveName();
+        final String saveName = this.gameBoard.hasBeenSaved() ? this.gameBoard.getSaveName() : autosaveName;
+        final MoveJournal journal = new MoveJournal( this.gameBoard.getGameState(), this.getSaveFile( saveName ) );
+        
+        this.gameBoard.setJournal( journal );
+        
+        //Starting the journal on the file thread, after any journal closed before it has finished, as both may write the same file.
+        this.fileExecutor.execute( new Runnable () {
             
-            //Returning path with forward slashes.
-            return currentDirectory.substring( 0, currentDirectory.lastIndexOf( "/" ) + 1 ) + "Saved Games/";
-
-        }
-        else
-        {
+            public void run () { journal.start(); }
             
-            //Returning path with back slashes.
-            return currentDirectory.substring( 0, currentDirectory.lastIndexOf( "\\" ) + 1 ) + "\\Saved Games\\";
-
-        }
-
+        });
+        
+        this.updateCatalog();
+        
+    }
+    
+    /**
+        Describes the current board's game in the catalog, once its journal has written everything asked of it, such as the
+        whole game rewritten after dead stones are marked. The catalog is updated on the file thread.
+        @return void
+    */
+    public void updateCatalog ()
+    {
+        
+        final MoveJournal journal = this.gameBoard.getJournal();
+        
+        if ( journal == null ) { return; }
+        
+        //Game can still be played, and saved by the user, if it cannot be autosaved.
+        new FileTask<Void>( null, "Encountered a problem while autosaving." ) {
+            
+            protected Void perform () throws IOException
+            {
+                
+                journal.flush();
+                Go.this.getCatalog().update( Go.this.getSaveName( journal.getFile() ) );
+                
+                return null;
+                
+            }
+            
+        }.start();
+        
+    }
+    
+    /**
+        Stops saving the current board's game after every move. Every move waiting to be saved is written on the file thread.
+        @return void
+    */
+    private void closeJournal ()
+    {
+        
+        final MoveJournal journal = this.gameBoard.getJournal();
+        
+        if ( journal == null ) { return; }
+        
+        this.gameBoard.setJournal( null );
+        
+        //An unnamed game left before its first move is not worth keeping.
+        GameState state = this.gameBoard.getGameState();
+        final boolean emptyAutosave = !this.gameBoard.hasBeenSaved() && state.getMoveCount() == 0 && state.getStartingStones( Player.Color.BLACK ) == null;
+        
+        Runnable closeTask = new Runnable () {
+            
+            public void run ()
+            {
+                
+                try
+                {
+                    
+                    journal.close();
+                    
+                    String saveName = Go.this.getSaveName( journal.getFile() );
+                    
+                    //Removing an empty autosave, or describing the game as it was left in the catalog, for the load game dialog.
+                    if ( emptyAutosave && Go.isAutosaveName( saveName ) )
+                    {
+                        
+                        journal.getFile().delete();
+                        Go.this.getCatalog().remove( saveName );
+                        
+                    }
+                    else { Go.this.getCatalog().update( saveName ); }
+                    
+                }
+                catch ( IOException e ) { System.out.println( "Encountered a problem while autosaving." ); }
+                
+            }
+            
+        };
+        
+        this.fileExecutor.execute( closeTask );
+        
+    }
+    
+    /**
+        Returns the catalog of saved games, reading it the first time it is needed. Only called on the file thread.
+        @return SaveCatalog
+    */
+    private synchronized SaveCatalog getCatalog ()
+    {
+        
+        if ( this.catalog == null ) { this.catalog = new SaveCatalog( new File( SAVES_DIRECTORY ) ); }
+        
+        return this.catalog;
+        
+    }
+    
+    /**
+        Returns a new name for an autosave, from the current time. Games started within the same second are told apart by a number.
+        @return String
+    */
+    private String createAutosaveName ()
+    {
+        
+        String stamp = AUTOSAVE_NAME + " " + new SimpleDateFormat( AUTOSAVE_TIME_FORMAT ).format( new Date() );
+        String name = stamp;
+        
+        for ( int i = 2; this.autosaveNames.contains( name ); i++ ) { name = stamp + " (" + i + ")"; }
+        
+        this.autosaveNames.add( name );
+        
+        return name;
+        
+    }
+    
+    /**
+        Returns if the given save name is the name of an autosave, of a game that has not been saved yet.
+        @param String Name of save.
+        @return boolean
+    */
+    private static boolean isAutosaveName ( String inName ) { return inName.equals( AUTOSAVE_NAME ) || inName.startsWith( AUTOSAVE_NAME + " " ); }
+    
+    /**
+        Returns the save file of the given save.
+        @param String Name of save.
+        @return File
+    */
+    private File getSaveFile ( String inName ) { return new File( SAVES_DIRECTORY, inName + SaveFile.EXTENSION ); }
+    
+    /**
+        Returns the name of the save kept in the given save file.
+        @param File Save file.
+        @return String
+    */
+    private String getSaveName ( File inFile )
+    {
+        
+        String fileName = inFile.getName();
+        
+        return fileName.substring( 0, fileName.length() - SaveFile.EXTENSION.length() );
+        
     }
 
 }
\ No newline at end of file
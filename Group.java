@@ -1,5 +1,4 @@
 import java.io.Serializable;
-import java.util.ArrayList;
 
 /**
     Class representing a group of pieces. Groups are formed when pieces of the same color
@@ -10,195 +9,187 @@ import java.util.ArrayList;
     Whenever a piece is placed on the board, it becomes a group of its own, or is added to an group
     that is adjacent to the piece.
     
+    The locations and liberties of a group are stored as bitsets over the points of the board, so checking,
+    counting and combining them only takes a few operations on each 64 bit word.
+    
     @author Dylan Foster
     @version 5/14/11
 */
 public class Group implements Serializable
 {
     
-    public static final boolean INITIAL_CHECK = true, NOT_INITIAL_CHECK = false;
-
-    private ArrayList<BoardLocation> locationsOfGroup;
-    private ArrayList<BoardLocation> liberties;
+    private GameState state;
+    private long[] locationsOfGroup;
+    private long[] liberties;
     private Player.Color color;
+    private long hash;
     
     /**
-        Combines two groups into a single group.
-        @param Group firstGroup
-        @param Group secondGroup
-        @return static Group
+        Constructor. Creates an empty group, which can be reused for any stone placed in the given game.
+        @param GameState Game the group is part of.
     */
-    public static Group combine ( Group inGroup1, Group inGroup2 )
+    public Group ( GameState inState )
     {
         
-        //Getting all locations contained in the given groups.
-        ArrayList<BoardLocation> newGroupLocations = inGroup1.getLocations();
-        newGroupLocations.addAll( inGroup2.getLocations() );
-        
-        //Returns a new group with the locations of the given groups.
-        return new Group( newGroupLocations );
+        this.state = inState;
+        this.locationsOfGroup = new long[ inState.getWordCount() ];
+        this.liberties = new long[ inState.getWordCount() ];
         
     }
     
     /**
-        Constructor. Creates a group with a single location.
-        @param BoardLocation Location to add to group.
+        Empties this <code>Group</code>, then adds a single location to it.
+        @param int Location to start group with.
+        @return void
     */
-    public Group ( BoardLocation inBoardLocation )
+    public void reset ( int inLocation )
     {
         
-        locationsOfGroup = new ArrayList<BoardLocation>();
-        liberties = new ArrayList<BoardLocation>();
+        //Removing all locations and liberties from this group.
+        for ( int i = 0; i < this.locationsOfGroup.length; i++ )
+        {
+            
+            this.locationsOfGroup[ i ] = 0;
+            this.liberties[ i ] = 0;
+            
+        }
         
         //Setting color of Group.
-        this.color = inBoardLocation.getPiece().getColor();
+        this.color = this.state.getColorAt( inLocation );
+        this.hash = 0;
         
-        //Adding given BoardLocation to Group.
-        this.add( inBoardLocation );
+        //Adding given location to Group.
+        this.add( inLocation );
         
     }
     
     /**
-        Constructor. Creates a group with multiple locations.
-        @param ArrayList<BoardLocation> Locations to add to group.
+        Makes this <code>Group</code> a copy of the given <code>Group</code>, which may be part of another game of the same size.
+        @param Group Group to copy.
+        @return void
     */
-    public Group ( ArrayList<BoardLocation> inBoardLocations )
+    public void copyFrom ( Group inGroup )
     {
         
-        locationsOfGroup = new ArrayList<BoardLocation>();
-        liberties = new ArrayList<BoardLocation>();
-        
-        //Setting color of Group.
-        this.color = inBoardLocations.get( 0 ).getPiece().getColor();
-        
-        //Adding given locations to Group.
-        this.add( inBoardLocations );
+        System.arraycopy( inGroup.locationsOfGroup, 0, this.locationsOfGroup, 0, this.locationsOfGroup.length );
+        System.arraycopy( inGroup.liberties, 0, this.liberties, 0, this.liberties.length );
+        this.color = inGroup.color;
+        this.hash = inGroup.hash;
         
     }
     
     /**
-        Adds a single <code>BoardLocation</code> to a <code>Group</code>.
-        @param BoardLocation Location to add to group.
+        Adds a single location to a <code>Group</code>, updating its liberties around that location only.
+        @param int Location to add to group.
         @return void
     */
-    public void add ( BoardLocation inBoardLocation )
+    public void add ( int inLocation )
     {
         
-        //Adding given BoardLocation to locations of this group.
-        locationsOfGroup.add( inBoardLocation );
+        //Adding given location to locations, and hash, of this group. It is no longer a liberty.
+        GameState.setBit( this.locationsOfGroup, inLocation );
+        GameState.clearBit( this.liberties, inLocation );
+        this.hash ^= GameState.getStoneKey( inLocation, this.color );
         
-        //Determining the liberties of the group.
-        this.calculateLiberties( INITIAL_CHECK );
+        //Cycling through surrounding locations.
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+        {
+            
+            int neighbour = this.state.getNeighbour( inLocation, direction );
+            
+            //If location is on the board and does not contain a stone, add location to liberties of group.
+            if ( neighbour != GameState.NO_POINT && !this.state.containsStone( neighbour ) ) { GameState.setBit( this.liberties, neighbour ); }
+            
+        }
         
     }
     
     /**
-        Adds multiple <code>BoardLocation</code>s to a <code>Group</code>
-        @param ArrayList<BoardLocation> locations
+        Merges the given <code>Group</code> into this <code>Group</code>. Liberties of both groups are kept, without
+        recalculating them from the board.
+        @param Group Group to merge into this group.
         @return void
     */
-    public void add ( ArrayList<BoardLocation> inBoardLocations )
+    public void merge ( Group inGroup )
     {
         
-        //Adding given BoardLocations to locations of this group.
-        locationsOfGroup.addAll( inBoardLocations );
+        //The given group's stones are all different to this group's, so their hashes combine.
+        this.hash ^= inGroup.hash;
         
-        //Determining the liberties of the group.
-        this.calculateLiberties( INITIAL_CHECK );
+        for ( int i = 0; i < this.locationsOfGroup.length; i++ )
+        {
+            
+            //Adding locations and liberties of given group to this group.
+            this.locationsOfGroup[ i ] |= inGroup.locationsOfGroup[ i ];
+            this.liberties[ i ] |= inGroup.liberties[ i ];
+            
+            //Removing any liberties that have been filled by a stone.
+            this.liberties[ i ] &= this.state.getEmptyPoints( i );
+            
+        }
         
     }
     
     /**
-        Returns if a <code>BoardLocation</code> is within a <code>Group</code>.
-        @param BoardLocation location
+        Returns if a location is within a <code>Group</code>.
+        @param int location
         @return boolean
     */
-    public boolean contains ( BoardLocation inBoardLocation )
-    {
-        
-        if ( this.locationsOfGroup.contains( inBoardLocation ) ) { return true; }
-        else { return false; }
-        
-    }
+    public boolean contains ( int inLocation ) { return GameState.testBit( this.locationsOfGroup, inLocation ); }
     
     /**
-        Determines the liberties of a <code>Group</code>.
-        @param boolean If this is an initial check of liberties or not.
+        Determines the liberties of a <code>Group</code> from scratch.
         @return void
     */
-    public void calculateLiberties ( boolean initialCheck )
+    public void calculateLiberties ()
     {
         
-        //Removing all liberties from this group.
-        this.liberties.clear();
-        
-        //Getting Board object this Group is located within.
-        Board myBoard = ( Board ) this.locationsOfGroup.get( 0 ).getParent();
-        
-        //Cycling through locations of Group.
-        for ( BoardLocation element : this.locationsOfGroup )
-        {
-            
-            //Getting X and Y coordinates of location.
-            int elementX = element.getX();
-            int elementY = element.getY();
-            
-            //Getting surrounding locations.
-            BoardLocation locationAbove = myBoard.getLocationAt( elementX, elementY - Board.SIZE_OF_SQUARE );
-            BoardLocation locationRight = myBoard.getLocationAt( elementX + Board.SIZE_OF_SQUARE, elementY );
-            BoardLocation locationBelow = myBoard.getLocationAt( elementX, elementY + Board.SIZE_OF_SQUARE );
-            BoardLocation locationLeft = myBoard.getLocationAt( elementX - Board.SIZE_OF_SQUARE, elementY );
-            
-            //If location is not already in liberties, and location does not contain a piece, then, add location to liberties of group.
-            if ( locationAbove instanceof BoardLocation && !this.liberties.contains( locationAbove ) && !locationAbove.containsPiece() ) { this.liberties.add( locationAbove ); }
-            if ( locationRight instanceof BoardLocation && !this.liberties.contains( locationRight ) && !locationRight.containsPiece() ) { this.liberties.add( locationRight ); }
-            if ( locationBelow instanceof BoardLocation && !this.liberties.contains( locationBelow ) && !locationBelow.containsPiece() ) { this.liberties.add( locationBelow ); }
-            if ( locationLeft instanceof BoardLocation && !this.liberties.contains( locationLeft ) && !locationLeft.containsPiece() ) { this.liberties.add( locationLeft ); }
-            
-        }
+        //Getting all locations surrounding the group.
+        this.state.getGeometry().getNeighbouringPoints( this.locationsOfGroup, this.liberties );
         
-        //If this is not an initial check of liberties, and this group has no more liberties, remove the group from the board.
-        if ( !initialCheck && this.liberties.size() == 0 ) { myBoard.removeGroup( this ); }
+        //Keeping only the surrounding locations that do not contain a stone.
+        for ( int i = 0; i < this.liberties.length; i++ ) { this.liberties[ i ] &= this.state.getEmptyPoints( i ); }
         
     }
     
     /**
-        Returns if this <code>Group</code>'s liberties contains the given <code>BoardLocation</code>.
-        @param BoardLocation location
+        Adds a single liberty to this <code>Group</code>. Used when a stone next to the group is removed.
+        @param int Location of liberty.
+        @return void
+    */
+    public void addLiberty ( int inLocation ) { GameState.setBit( this.liberties, inLocation ); }
+    
+    /**
+        Removes a single liberty from this <code>Group</code>. Used when a stone is placed next to the group.
+        @param int Location of liberty.
+        @return void
+    */
+    public void removeLiberty ( int inLocation ) { GameState.clearBit( this.liberties, inLocation ); }
+    
+    /**
+        Returns if this <code>Group</code>'s liberties contains the given location.
+        @param int location
         @return boolean
     */
-    public boolean libertiesContain ( BoardLocation inBoardLocation )
-    {
-        
-        //Cycling through liberties of group.
-        for ( BoardLocation element : this.liberties )
-        {
-            
-            //Getting X and Y location of location.
-            int elementX = element.getX();
-            int elementY = element.getY();
-            
-            //If X and Y coordinates of given location matches current location, this group contains given location.
-            if ( elementX == inBoardLocation.getX() && elementY == inBoardLocation.getY() ) { return true; }
-            
-        }
-        
-        //Group does not contain given location.
-        return false;
-        
-    }
+    public boolean libertiesContain ( int inLocation ) { return GameState.testBit( this.liberties, inLocation ); }
     
     /**
-        Returns all <code>BoardLocation</code>s contained in this <code>Group</code>.
-        @return ArrayList<BoardLocation>
+        Returns the bitset of all locations contained in this <code>Group</code>.
+        @return long[]
     */
-    public ArrayList<BoardLocation> getLocations () { return this.locationsOfGroup; }
+    public long[] getLocations () { return this.locationsOfGroup; }
     
     /**
-        Returns all <code>BoardLocation</code>s representing the liberties of this group.
-        @return ArrayList<BoardLocation>
+        Returns the bitset of all locations representing the liberties of this group.
+        @return long[]
     */
-    public ArrayList<BoardLocation> getLiberties () { return this.liberties; }
+    public long[] getLiberties () { return this.liberties; }
+    
+    /**
+        Returns the hash of the stones in this <code>Group</code>, the part of the position's hash they make up.
+        @return long
+    */
+    public long getHash () { return this.hash; }
     
     /**
         Returns the color of the <code>Piece</code>s within this <code>Group</code>.
@@ -206,18 +197,24 @@ public class Group implements Serializable
     */
     public Player.Color getColor () { return this.color; }
     
+    /**
+        Returns the number of stones in this <code>Group</code>.
+        @return int
+    */
+    public int getSize () { return GameState.countBits( this.locationsOfGroup ); }
+    
     /**
         Returns the number of liberties this <code>Group</code> has.
         @return int
     */
-    public int getLibertyCount () { return this.liberties.size(); }
+    public int getLibertyCount () { return GameState.countBits( this.liberties ); }
     
     /**
-        Returns if this <code>Group</code> would be captured by a move at the given <code>BoardLocation</code>
-        @param BoardLocation Location to check.
+        Returns if this <code>Group</code> would be captured by a move at the given location
+        @param int Location to check.
         @return boolean
     */
-    public boolean wouldBeCapturedByMoveAt ( BoardLocation inLocation )
+    public boolean wouldBeCapturedByMoveAt ( int inLocation )
     {
         
         //Checks if liberties contain the given location, and if this group only has one liberty remaining.
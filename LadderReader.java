@@ -0,0 +1,468 @@
+import java.util.Arrays;
+
+/**
+    Class that reads ladders: whether a group in atari can escape, or is captured however it runs, by the other player
+    putting it back in atari at each step.
+
+    The group's liberties are taken from its <code>Group</code>, and any enemy group next to it in atari is captured to escape.
+    Otherwise the group extends into its last liberty on a scratch copy of the board owned by the reader. With three or more
+    liberties it has escaped, with one it is captured, and with two the other player tries an atari on each, and the reading
+    goes on. Moves are made and unmade on the scratch board, recording each changed point, so nothing is created while reading
+    and the game being shown is never changed. Ko is not read, capturing a stone in atari is always taken as an escape, and a
+    reading that plays too many moves is cut short and taken as an escape.
+
+    A reader is used by one thread at a time; each thread reading ladders, such as each playout engine, should have its own.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class LadderReader
+{
+
+    //Values of a point on the scratch board.
+    private static final int EMPTY = 0, BLACK = 1, WHITE = 2;
+
+    //Number of moves a reading can play before the group is taken as escaped. A ladder across the whole board plays fewer,
+    //but a group that keeps finding two liberties could otherwise be read for millions.
+    private static final int MAX_PLAYS = 400;
+
+    private BoardGeometry geometry;
+    private int[] colors;
+    private int[] marks;
+    private int generation;
+    private int[] stones;
+    private int stoneTop;
+    private int[] liberties;
+    private int[] changedPoints;
+    private int[] changedColors;
+    private int changeCount;
+    private int playCount;
+
+    /**
+        Constructor. Creates a reader for ladders on a board of the given size.
+        @param int Size of board.
+    */
+    public LadderReader ( int inBoardSize )
+    {
+
+        this.geometry = BoardGeometry.forSize( inBoardSize );
+
+        int pointCount = this.geometry.getPointCount();
+
+        //Stones of a group being read, and of one group next to it, can be on the stack at once.
+        this.colors = new int[ pointCount ];
+        this.marks = new int[ pointCount ];
+        this.stones = new int[ 2 * pointCount ];
+        this.liberties = new int[ 3 ];
+        this.changedPoints = new int[ 4 * pointCount ];
+        this.changedColors = new int[ 4 * pointCount ];
+
+    }
+
+    /**
+        Returns if the group at the given point, which is in atari, can escape when it is its player's turn.
+        @param GameState Game to read.
+        @param int Point of a stone in the group.
+        @return boolean
+    */
+    public boolean canEscape ( GameState inState, int point ) { return this.findEscapeMove( inState, point ) != GameState.NO_POINT; }
+
+    /**
+        Returns a move that lets the group at the given point, which is in atari, escape when it is its player's turn: a
+        capture of an enemy group in atari next to it, or its last liberty.
+        @param GameState Game to read.
+        @param int Point of a stone in the group.
+        @return int Point of move, or <code>GameState.NO_POINT</code> if the group is captured by a ladder.
+    */
+    public int findEscapeMove ( GameState inState, int point )
+    {
+
+        Group prey = inState.getGroupAt( point );
+
+        if ( inState.getGeometry() != this.geometry ) { throw new IllegalArgumentException( "Game must be on a board of the reader's size." ); }
+        if ( prey == null || prey.getLibertyCount() != 1 ) { throw new IllegalArgumentException( "Group must be in atari." ); }
+
+        long[] locations = prey.getLocations();
+
+        //Escaping by capturing an enemy group in atari, found from the liberties the game already tracks.
+        for ( int i = 0; i < locations.length; i++ )
+        {
+
+            for ( long bits = locations[ i ]; bits != 0; bits &= bits - 1 )
+            {
+
+                int stone = ( i << 6 ) + Long.numberOfTrailingZeros( bits );
+
+                for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+                {
+
+                    Group neighbour = inState.getGroupAt( inState.getNeighbour( stone, direction ) );
+
+                    if ( neighbour != null && neighbour.getColor() != prey.getColor() && neighbour.getLibertyCount() == 1 ) { return GameState.getFirstBit( neighbour.getLiberties() ); }
+
+                }
+
+            }
+
+        }
+
+        int liberty = GameState.getFirstBit( prey.getLiberties() );
+        int emptyNeighbours = 0;
+
+        //Escaping without reading when the last liberty alone gives the group three liberties.
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+        {
+
+            int neighbour = inState.getNeighbour( liberty, direction );
+
+            if ( neighbour != GameState.NO_POINT && !inState.containsStone( neighbour ) ) { emptyNeighbours++; }
+
+        }
+
+        if ( emptyNeighbours >= 3 ) { return liberty; }
+
+        //Copying the board from its bitboards, then reading the group extending into its last liberty.
+        Arrays.fill( this.colors, EMPTY );
+        this.copyStones( inState.getStones( Player.Color.BLACK ), BLACK );
+        this.copyStones( inState.getStones( Player.Color.WHITE ), WHITE );
+
+        this.changeCount = 0;
+        this.stoneTop = 0;
+        this.playCount = 0;
+
+        return this.isCapturedAfterExtending( point, liberty, prey.getSize() ) ? GameState.NO_POINT : liberty;
+
+    }
+
+    /**
+        Places the stones of the given bitboard on the scratch board.
+        @param long[] Bitboard of stones.
+        @param int Color of stones.
+        @return void
+    */
+    private void copyStones ( long[] inStones, int color )
+    {
+
+        for ( int i = 0; i < inStones.length; i++ )
+        {
+
+            for ( long bits = inStones[ i ]; bits != 0; bits &= bits - 1 ) { this.colors[ ( i << 6 ) + Long.numberOfTrailingZeros( bits ) ] = color; }
+
+        }
+
+    }
+
+    /**
+        Returns if the group at the given point, put in atari on the scratch board by the other player's last move, is
+        captured whatever it does, with its player to move. Enemy groups only lose liberties to the moves next to them, so
+        unless the group's last extension joined it to other stones, only the groups next to that extension, and the group of
+        the atari, can have been put in atari since the group was last read.
+        @param int Point of a stone in the group.
+        @param int Group's last liberty.
+        @param int Number of stones in the group.
+        @param int Point the group last extended to.
+        @param int Point of the atari.
+        @param boolean If the last extension joined the group to other stones.
+        @return boolean
+    */
+    private boolean isCaptured ( int point, int liberty, int size, int extension, int atari, boolean joined )
+    {
+
+        //Escaping by capturing an enemy group in atari next to the group.
+        if ( this.isInAtari( atari ) ) { return false; }
+
+        if ( joined )
+        {
+
+            if ( this.touchesEnemyInAtari( point ) ) { return false; }
+
+        }
+        else
+        {
+
+            for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+            {
+
+                int neighbour = this.geometry.getNeighbour( extension, direction );
+
+                if ( neighbour != GameState.NO_POINT && this.colors[ neighbour ] == this.colors[ atari ] && this.isInAtari( neighbour ) ) { return false; }
+
+            }
+
+        }
+
+        return this.isCapturedAfterExtending( point, liberty, size );
+
+    }
+
+    /**
+        Returns if the group at the given point is captured after extending into its last liberty.
+        @param int Point of a stone in the group.
+        @param int Group's last liberty.
+        @param int Number of stones in the group.
+        @return boolean
+    */
+    private boolean isCapturedAfterExtending ( int point, int liberty, int size )
+    {
+
+        //Taking a reading this long as escaped.
+        if ( this.playCount >= MAX_PLAYS ) { return false; }
+
+        int mark = this.changeCount;
+        int start = this.stoneTop;
+
+        this.play( liberty, this.colors[ point ] );
+
+        //With fewer than three liberties, the whole group is found, so its stones are counted too.
+        int libertyCount = this.countLiberties( point, 3 );
+        int newSize = this.stoneTop - start;
+        int first = this.liberties[ 0 ];
+        int second = this.liberties[ 1 ];
+        this.stoneTop = start;
+
+        //With two liberties, the other player tries an atari on each.
+        boolean captured = ( libertyCount <= 1 ) || ( libertyCount == 2 && ( this.isCapturedByAtari( first, point, newSize, liberty, newSize != size + 1 ) || this.isCapturedByAtari( second, point, newSize, liberty, newSize != size + 1 ) ) );
+
+        this.undo( mark );
+
+        return captured;
+
+    }
+
+    /**
+        Returns if an atari at the given point captures the group at the given point, which has two liberties.
+        @param int Point of atari.
+        @param int Point of a stone in the group.
+        @param int Number of stones in the group.
+        @param int Point the group last extended to.
+        @param boolean If the last extension joined the group to other stones.
+        @return boolean
+    */
+    private boolean isCapturedByAtari ( int atari, int point, int size, int extension, boolean joined )
+    {
+
+        int mark = this.changeCount;
+        int start = this.stoneTop;
+
+        this.play( atari, ( this.colors[ point ] == BLACK ) ? WHITE : BLACK );
+
+        //An atari with no liberties of its own cannot be played.
+        boolean captured = false;
+
+        if ( this.countLiberties( atari, 1 ) > 0 )
+        {
+
+            this.stoneTop = start;
+
+            if ( this.countLiberties( point, 2 ) == 1 )
+            {
+
+                this.stoneTop = start;
+                captured = this.isCaptured( point, this.liberties[ 0 ], size, extension, atari, joined );
+
+            }
+
+        }
+
+        this.stoneTop = start;
+        this.undo( mark );
+
+        return captured;
+
+    }
+
+    /**
+        Returns if any enemy group next to the group at the given point on the scratch board is in atari.
+        @param int Point of a stone in the group.
+        @return boolean
+    */
+    private boolean touchesEnemyInAtari ( int point )
+    {
+
+        int start = this.stoneTop;
+        int color = this.colors[ point ];
+
+        this.countLiberties( point, Integer.MAX_VALUE );
+
+        int end = this.stoneTop;
+
+        for ( int i = start; i < end; i++ )
+        {
+
+            for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+            {
+
+                int neighbour = this.geometry.getNeighbour( this.stones[ i ], direction );
+
+                if ( neighbour != GameState.NO_POINT && this.colors[ neighbour ] != EMPTY && this.colors[ neighbour ] != color && this.isInAtari( neighbour ) )
+                {
+
+                    this.stoneTop = start;
+                    return true;
+
+                }
+
+            }
+
+        }
+
+        this.stoneTop = start;
+
+        return false;
+
+    }
+
+    /**
+        Returns if the group at the given point on the scratch board has exactly one liberty.
+        @param int Point of a stone in the group.
+        @return boolean
+    */
+    private boolean isInAtari ( int point )
+    {
+
+        int start = this.stoneTop;
+        boolean inAtari = this.countLiberties( point, 2 ) == 1;
+        this.stoneTop = start;
+
+        return inAtari;
+
+    }
+
+    /**
+        Places a stone on the scratch board, removing any enemy groups left without liberties, and recording every change.
+        @param int Point of stone.
+        @param int Color of stone.
+        @return void
+    */
+    private void play ( int point, int color )
+    {
+
+        this.recordChange( point );
+        this.colors[ point ] = color;
+        this.playCount++;
+
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+        {
+
+            int neighbour = this.geometry.getNeighbour( point, direction );
+
+            if ( neighbour == GameState.NO_POINT || this.colors[ neighbour ] == EMPTY || this.colors[ neighbour ] == color ) { continue; }
+
+            int start = this.stoneTop;
+
+            //A group with no liberties is found whole, so every stone of it is removed.
+            if ( this.countLiberties( neighbour, 1 ) == 0 )
+            {
+
+                for ( int i = start; i < this.stoneTop; i++ )
+                {
+
+                    this.recordChange( this.stones[ i ] );
+                    this.colors[ this.stones[ i ] ] = EMPTY;
+
+                }
+
+            }
+
+            this.stoneTop = start;
+
+        }
+
+    }
+
+    /**
+        Counts the liberties of the group at the given point on the scratch board, stopping once the given number are found.
+        The first liberties found are kept, and the stones found are pushed onto the stack, to be popped by the caller.
+        @param int Point of a stone in the group.
+        @param int Number of liberties to stop at.
+        @return int
+    */
+    private int countLiberties ( int point, int limit )
+    {
+
+        int color = this.colors[ point ];
+        int count = 0;
+        int start = this.stoneTop;
+
+        //Starting a new generation of marks, clearing the marks if the generations run out.
+        if ( ++this.generation == Integer.MAX_VALUE )
+        {
+
+            Arrays.fill( this.marks, 0 );
+            this.generation = 1;
+
+        }
+
+        this.marks[ point ] = this.generation;
+        this.stones[ this.stoneTop++ ] = point;
+
+        for ( int i = start; i < this.stoneTop && count < limit; i++ )
+        {
+
+            for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+            {
+
+                int neighbour = this.geometry.getNeighbour( this.stones[ i ], direction );
+
+                if ( neighbour == GameState.NO_POINT || this.marks[ neighbour ] == this.generation ) { continue; }
+
+                this.marks[ neighbour ] = this.generation;
+
+                if ( this.colors[ neighbour ] == EMPTY )
+                {
+
+                    if ( count < this.liberties.length ) { this.liberties[ count ] = neighbour; }
+
+                    count++;
+
+                }
+                else if ( this.colors[ neighbour ] == color ) { this.stones[ this.stoneTop++ ] = neighbour; }
+
+            }
+
+        }
+
+        return count;
+
+    }
+
+    /**
+        Records the color of the given point, so it can be put back by <code>undo</code>.
+        @param int Point about to change.
+        @return void
+    */
+    private void recordChange ( int point )
+    {
+
+        if ( this.changeCount == this.changedPoints.length )
+        {
+
+            this.changedPoints = Arrays.copyOf( this.changedPoints, 2 * this.changeCount );
+            this.changedColors = Arrays.copyOf( this.changedColors, 2 * this.changeCount );
+
+        }
+
+        this.changedPoints[ this.changeCount ] = point;
+        this.changedColors[ this.changeCount++ ] = this.colors[ point ];
+
+    }
+
+    /**
+        Puts back every change to the scratch board made since the given number of changes were recorded.
+        @param int Number of changes to keep.
+        @return void
+    */
+    private void undo ( int mark )
+    {
+
+        while ( this.changeCount > mark )
+        {
+
+            this.changeCount--;
+            this.colors[ this.changedPoints[ this.changeCount ] ] = this.changedColors[ this.changeCount ];
+
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,455 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+    Class that reads games saved by earlier versions of the program, which wrote the whole <code>Board</code> component
+    with Java serialization.
+
+    Those files hold every Swing object the board referred to, some of which only exist on the computer the game was saved on,
+    so they cannot be read back with an <code>ObjectInputStream</code>. Instead, the serialization stream is read without
+    creating any of its objects. Every object becomes a table of its fields, and only the stones and the turn are taken from them.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class LegacySaveReader
+{
+
+    //Values marking the type of each item in a serialization stream.
+    private static final byte TC_NULL = 0x70, TC_REFERENCE = 0x71, TC_CLASSDESC = 0x72, TC_OBJECT = 0x73, TC_STRING = 0x74,
+        TC_ARRAY = 0x75, TC_CLASS = 0x76, TC_BLOCKDATA = 0x77, TC_ENDBLOCKDATA = 0x78, TC_RESET = 0x79, TC_BLOCKDATALONG = 0x7A,
+        TC_LONGSTRING = 0x7C, TC_PROXYCLASSDESC = 0x7D, TC_ENUM = 0x7E;
+
+    //Flags of a class description.
+    private static final byte SC_WRITE_METHOD = 0x01, SC_SERIALIZABLE = 0x02, SC_EXTERNALIZABLE = 0x04;
+
+    //Number given to the first object in a stream.
+    private static final int BASE_HANDLE = 0x7E0000;
+
+    private ByteBuffer buffer;
+    private ArrayList<Object> handles;
+
+    /**
+        Class describing a class in the stream: its name, flags, fields and super class.
+    */
+    private static class ClassDescription
+    {
+
+        private String name;
+        private byte flags;
+        private char[] fieldTypes;
+        private String[] fieldNames;
+        private ClassDescription superClass;
+
+    }
+
+    /**
+        Class holding the fields of an object in the stream, from every class it extends.
+    */
+    private static class StreamObject
+    {
+
+        private String className;
+        private HashMap<String, Object> fields = new HashMap<String, Object>();
+
+    }
+
+    /**
+        Constructor. Creates a reader for the serialization stream in the given buffer.
+        @param ByteBuffer Buffer holding the stream.
+    */
+    private LegacySaveReader ( ByteBuffer inBuffer )
+    {
+
+        this.buffer = inBuffer;
+        this.handles = new ArrayList<Object>();
+
+    }
+
+    /**
+        Returns if the given buffer holds a Java serialization stream, without moving its position.
+        @param ByteBuffer Buffer to check.
+        @return boolean
+    */
+    public static boolean isLegacySave ( ByteBuffer inBuffer ) { return inBuffer.remaining() >= 2 && inBuffer.getShort( inBuffer.position() ) == ( short ) 0xACED; }
+
+    /**
+        Reads the game held by a serialized <code>Board</code>.
+        @param ByteBuffer Buffer holding the serialized board.
+        @return GameState
+    */
+    public static GameState read ( ByteBuffer inBuffer ) throws IOException
+    {
+
+        try
+        {
+
+            //Skipping the magic number and version of the stream.
+            inBuffer.getInt();
+
+            Object board = new LegacySaveReader( inBuffer ).readContent();
+
+            if ( !( board instanceof StreamObject ) || !( ( StreamObject ) board ).className.equals( "Board" ) ) { throw new IOException( "Save file does not contain a board." ); }
+
+            return LegacySaveReader.toGameState( ( StreamObject ) board );
+
+        }
+        catch ( BufferUnderflowException e )
+        {
+
+            //File ended before the whole board was read.
+            throw new IOException( "Save file is incomplete." );
+
+        }
+        catch ( ClassCastException e )
+        {
+
+            //A field held something other than what earlier versions of the program wrote.
+            throw new IOException( "Save file appears to be corrupt." );
+
+        }
+
+    }
+
+    /**
+        Creates a game with the stones and turn of the given serialized <code>Board</code>.
+        @param StreamObject Serialized board.
+        @return GameState
+    */
+    private static GameState toGameState ( StreamObject inBoard ) throws IOException
+    {
+
+        //Locations were stored by column, then by row.
+        Object[] columns = ( Object[] ) inBoard.fields.get( "board" );
+
+        if ( columns == null || columns.length < 1 || columns.length > BoardGeometry.MAX_BOARD_SIZE ) { throw new IOException( "Save file has an unsupported board size." ); }
+
+        GameState state = new GameState( columns.length );
+        long[] blackStones = new long[ state.getWordCount() ];
+        long[] whiteStones = new long[ state.getWordCount() ];
+
+        for ( int column = 0; column < columns.length; column++ )
+        {
+
+            Object[] locations = ( Object[] ) columns[ column ];
+
+            for ( int row = 0; row < locations.length && row < columns.length; row++ )
+            {
+
+                //The piece at a location was the only component added to it.
+                Object[] components = ( Object[] ) ( ( StreamObject ) locations[ row ] ).fields.get( "component" );
+
+                if ( components == null ) { continue; }
+
+                for ( Object element : components )
+                {
+
+                    if ( !( element instanceof StreamObject ) || !( ( StreamObject ) element ).className.equals( "Piece" ) ) { continue; }
+
+                    if ( "BLACK".equals( ( ( StreamObject ) element ).fields.get( "color" ) ) ) { GameState.setBit( blackStones, state.getPoint( column, row ) ); }
+                    else { GameState.setBit( whiteStones, state.getPoint( column, row ) ); }
+
+                }
+
+            }
+
+        }
+
+        Player.Color turn = "WHITE".equals( inBoard.fields.get( "turn" ) ) ? Player.Color.WHITE : Player.Color.BLACK;
+
+        state.setUpPosition( blackStones, whiteStones, turn, Boolean.TRUE.equals( inBoard.fields.get( "lastTurnPassed" ) ) );
+
+        return state;
+
+    }
+
+    /**
+        Reads the next item of the stream.
+        Objects are returned as <code>StreamObject</code>s, arrays as arrays, enum constants as their names, and class descriptions
+        as <code>ClassDescription</code>s. Block data is skipped, returning <code>null</code>, and resets are skipped.
+        @return Object
+    */
+    private Object readContent () throws IOException
+    {
+
+        while ( true )
+        {
+
+            byte type = this.buffer.get();
+
+            switch ( type )
+            {
+
+                case TC_NULL: return null;
+                case TC_REFERENCE: return this.handles.get( this.buffer.getInt() - BASE_HANDLE );
+                case TC_CLASSDESC: return this.readClassDescription();
+                case TC_PROXYCLASSDESC: return this.readProxyClassDescription();
+                case TC_OBJECT: return this.readObject();
+                case TC_STRING: return this.readString( this.buffer.getShort() & 0xFFFF );
+                case TC_LONGSTRING: return this.readString( ( int ) this.buffer.getLong() );
+                case TC_ARRAY: return this.readArray();
+                case TC_ENUM: return this.readEnum();
+
+                case TC_CLASS:
+
+                    //Classes themselves hold nothing needed from the stream.
+                    Object description = this.readContent();
+                    this.newHandle( description );
+                    return description;
+
+                case TC_BLOCKDATA: this.skip( this.buffer.get() & 0xFF ); return null;
+                case TC_BLOCKDATALONG: this.skip( this.buffer.getInt() ); return null;
+                case TC_RESET: this.handles.clear(); break;
+                default: throw new IOException( "Save file appears to be corrupt." );
+
+            }
+
+        }
+
+    }
+
+    /**
+        Reads the description of a class, after its type.
+        @return ClassDescription
+    */
+    private ClassDescription readClassDescription () throws IOException
+    {
+
+        ClassDescription description = new ClassDescription();
+
+        description.name = this.readUTF( this.buffer.getShort() & 0xFFFF );
+
+        //Skipping serial version UID.
+        this.buffer.getLong();
+
+        this.newHandle( description );
+        description.flags = this.buffer.get();
+
+        int fieldCount = this.buffer.getShort();
+        description.fieldTypes = new char[ fieldCount ];
+        description.fieldNames = new String[ fieldCount ];
+
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+
+            description.fieldTypes[ i ] = ( char ) this.buffer.get();
+            description.fieldNames[ i ] = this.readUTF( this.buffer.getShort() & 0xFFFF );
+
+            //Fields holding objects and arrays also name their class.
+            if ( description.fieldTypes[ i ] == 'L' || description.fieldTypes[ i ] == '[' ) { this.readContent(); }
+
+        }
+
+        this.skipAnnotation();
+        description.superClass = ( ClassDescription ) this.readContent();
+
+        return description;
+
+    }
+
+    /**
+        Reads the description of a proxy class, after its type. Proxy classes have no fields.
+        @return ClassDescription
+    */
+    private ClassDescription readProxyClassDescription () throws IOException
+    {
+
+        ClassDescription description = new ClassDescription();
+
+        description.name = "Proxy";
+        description.fieldTypes = new char[ 0 ];
+        description.fieldNames = new String[ 0 ];
+        description.flags = SC_SERIALIZABLE;
+
+        this.newHandle( description );
+
+        //Skipping the names of the interfaces the proxy implements.
+        for ( int count = this.buffer.getInt(); count > 0; count-- ) { this.skip( this.buffer.getShort() & 0xFFFF ); }
+
+        this.skipAnnotation();
+        description.superClass = ( ClassDescription ) this.readContent();
+
+        return description;
+
+    }
+
+    /**
+        Reads an object, after its type.
+        @return StreamObject
+    */
+    private StreamObject readObject () throws IOException
+    {
+
+        ClassDescription description = ( ClassDescription ) this.readContent();
+        StreamObject object = new StreamObject();
+
+        object.className = description.name;
+        this.newHandle( object );
+
+        //Getting every class the object's class extends, as the fields of the highest class are written first.
+        ArrayList<ClassDescription> hierarchy = new ArrayList<ClassDescription>();
+
+        for ( ClassDescription element = description; element != null; element = element.superClass ) { hierarchy.add( 0, element ); }
+
+        for ( ClassDescription element : hierarchy )
+        {
+
+            //Externalizable objects write only block data, and other classes write their fields first.
+            if ( ( element.flags & SC_EXTERNALIZABLE ) != 0 )
+            {
+
+                this.skipAnnotation();
+                continue;
+
+            }
+
+            if ( ( element.flags & SC_SERIALIZABLE ) == 0 ) { continue; }
+
+            for ( int i = 0; i < element.fieldNames.length; i++ ) { object.fields.put( element.fieldNames[ i ], this.readValue( element.fieldTypes[ i ] ) ); }
+
+            //Classes with a writeObject method may write more after their fields.
+            if ( ( element.flags & SC_WRITE_METHOD ) != 0 ) { this.skipAnnotation(); }
+
+        }
+
+        return object;
+
+    }
+
+    /**
+        Reads an array, after its type.
+        @return Object[] Array of values, with primitive values boxed.
+    */
+    private Object[] readArray () throws IOException
+    {
+
+        ClassDescription description = ( ClassDescription ) this.readContent();
+        Object[] array = new Object[ this.buffer.getInt() ];
+
+        this.newHandle( array );
+
+        //The type of each element follows the '[' that starts the array's class name.
+        char elementType = description.name.charAt( 1 );
+
+        for ( int i = 0; i < array.length; i++ ) { array[ i ] = this.readValue( elementType ); }
+
+        return array;
+
+    }
+
+    /**
+        Reads an enum constant, after its type.
+        @return String Name of constant.
+    */
+    private String readEnum () throws IOException
+    {
+
+        this.readContent();
+
+        int handle = this.newHandle( null );
+        String name = ( String ) this.readContent();
+
+        this.handles.set( handle, name );
+
+        return name;
+
+    }
+
+    /**
+        Reads a single value of the given type.
+        @param char Type of value, as written in the stream.
+        @return Object
+    */
+    private Object readValue ( char type ) throws IOException
+    {
+
+        switch ( type )
+        {
+
+            case 'B': return this.buffer.get();
+            case 'C': return this.buffer.getChar();
+            case 'D': return this.buffer.getDouble();
+            case 'F': return this.buffer.getFloat();
+            case 'I': return this.buffer.getInt();
+            case 'J': return this.buffer.getLong();
+            case 'S': return this.buffer.getShort();
+            case 'Z': return this.buffer.get() != 0;
+            case 'L': case '[': return this.readContent();
+            default: throw new IOException( "Save file appears to be corrupt." );
+
+        }
+
+    }
+
+    /**
+        Skips everything a class wrote after its fields, up to the end of its block data.
+        @return void
+    */
+    private void skipAnnotation () throws IOException
+    {
+
+        while ( this.buffer.get( this.buffer.position() ) != TC_ENDBLOCKDATA ) { this.readContent(); }
+
+        this.buffer.get();
+
+    }
+
+    /**
+        Reads a string object of the given length in bytes, after its type and length.
+        @param int Length of string.
+        @return String
+    */
+    private String readString ( int length )
+    {
+
+        String string = this.readUTF( length );
+
+        this.newHandle( string );
+
+        return string;
+
+    }
+
+    /**
+        Reads a string of the given length in bytes.
+        Java serialization uses modified UTF-8, which only differs from UTF-8 for characters not found in class or field names.
+        @param int Length of string.
+        @return String
+    */
+    private String readUTF ( int length )
+    {
+
+        byte[] bytes = new byte[ length ];
+
+        this.buffer.get( bytes );
+
+        return new String( bytes, StandardCharsets.UTF_8 );
+
+    }
+
+    /**
+        Moves forward in the stream by the given number of bytes.
+        @param int Number of bytes.
+        @return void
+    */
+    private void skip ( int length ) { this.buffer.position( this.buffer.position() + length ); }
+
+    /**
+        Gives the given item the next handle, so later references can refer to it.
+        @param Object Item.
+        @return int Index of handle.
+    */
+    private int newHandle ( Object inItem )
+    {
+
+        this.handles.add( inItem );
+
+        return this.handles.size() - 1;
+
+    }
+
+}
\ No newline at end of file
@@ -1,79 +1,142 @@
+import java.awt.BorderLayout;
+import java.awt.Dimension;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseEvent;
-import java.awt.Component;
-import javax.swing.JList;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.regex.Pattern;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
 import javax.swing.JOptionPane;
 import javax.swing.JDialog;
-import java.io.File;
-import java.util.ArrayList;
+import javax.swing.RowFilter;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
 
 /**
-    Class used to show a custom JOptionPane for loading various files.
+    Class used to show a custom JOptionPane for loading saved games.
+    Games are shown in a table, described by their catalog entries, which can be sorted by any column and filtered by name.
     @author Dylan Foster
     @version 5/9/11
 */
 public class LoadGameDialog extends JOptionPane
 {
 
+    //Names of the table's columns.
+    private static final String[] COLUMN_NAMES = { "Name", "Board", "Moves", "Status", "Last Saved" };
+
     /**
-        Frame that displays a <code>JList</code> of file names to user, receives input.
-        @param ArrayList<File> files to display in list.
-        @return File Selected <code>File</code>
+        Frame that displays a table of saved games to user, receives input.
+        @param ArrayList<SaveCatalog.Entry> Catalog entries of saved games to display in table.
+        @return SaveCatalog.Entry Selected entry.
     */
-    public static File showLoadDialog ( final ArrayList<File> inSaveFiles )
+    public static SaveCatalog.Entry showLoadDialog ( final ArrayList<SaveCatalog.Entry> inEntries )
     {
 
-        if ( !( inSaveFiles instanceof ArrayList ) ) { return null; }
+        if ( !( inEntries instanceof ArrayList ) ) { return null; }
 
-        //Creating array of file names to display in list.
-        String [] saveFileNames = new String[ inSaveFiles.size() ];
+        //Creating table model, describing each entry in a row of the table.
+        AbstractTableModel model = new AbstractTableModel () {
 
-        //For each file in the input ArrayList.
-        for ( int i = 0; i < inSaveFiles.size(); i++ )
-        {
+            public int getRowCount () { return inEntries.size(); }
 
-            //Getting name of file.
-            String fileName = inSaveFiles.get( i ).getName();
+            public int getColumnCount () { return COLUMN_NAMES.length; }
 
-            //Removing extension from file.
-            fileName = fileName.substring( 0, fileName.indexOf( "." ) );
+            public String getColumnName ( int column ) { return COLUMN_NAMES[ column ]; }
 
-            //Store file name in String array.
-            saveFileNames[ i ] = fileName;
+            public Class<?> getColumnClass ( int column )
+            {
 
-        }
+                //Numbers and dates are sorted by value, rather than as text.
+                if ( column == 2 ) { return Integer.class; }
+                else if ( column == 4 ) { return Date.class; }
+                else { return String.class; }
 
-        //Creating and configuring JList.
-        final JList fileList = new JList( saveFileNames );
-        fileList.setFixedCellHeight( 35 );
+            }
 
-        //Creating scroll pane, so JList can contain more files that the frame height would normally allow.
-        JScrollPane scrollPane = new JScrollPane( fileList );
+            public Object getValueAt ( int row, int column )
+            {
 
-        //Creating and configuring option pane containing scroll pane and no buttons.
-        final JOptionPane loadDialog = new JOptionPane( scrollPane, JOptionPane.PLAIN_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[ 0 ], null );
-        fileList.setBackground( loadDialog.getBackground() );
+                SaveCatalog.Entry entry = inEntries.get( row );
+                SaveHeader header = entry.getHeader();
 
-        //Adding anonymous mouse listener to JList.
-        fileList.addMouseListener( new MouseListener () {
+                if ( column == 0 ) { return entry.getName(); }
+                else if ( column == 1 ) { return header.getBoardSize() + " x " + header.getBoardSize(); }
+                else if ( column == 2 ) { return header.getMoveCount(); }
+                else if ( column == 3 ) { return header.isGameOver() ? header.getResult() : ( header.getTurn() == Player.Color.BLACK ? "Black to play" : "White to play" ); }
+                else { return new Date( header.getModifiedTime() ); }
+
+            }
+
+        };
+
+        //Creating and configuring table, most recently saved games first.
+        final JTable gameTable = new JTable( model );
+        final TableRowSorter<AbstractTableModel> sorter = new TableRowSorter<AbstractTableModel>( model );
+        gameTable.setRowSorter( sorter );
+        gameTable.setRowHeight( 35 );
+        gameTable.setFillsViewportHeight( true );
+        sorter.toggleSortOrder( 4 );
+        sorter.toggleSortOrder( 4 );
+
+        //Creating field to filter games by name. Table is filtered as user types.
+        final JTextField filterField = new JTextField();
+        filterField.getDocument().addDocumentListener( new DocumentListener () {
+
+            public void insertUpdate ( DocumentEvent e ) { this.filter(); }
+            public void removeUpdate ( DocumentEvent e ) { this.filter(); }
+            public void changedUpdate ( DocumentEvent e ) { this.filter(); }
+
+            private void filter ()
+            {
+
+                //Showing games with names containing the text, ignoring case.
+                sorter.setRowFilter( RowFilter.<AbstractTableModel, Integer>regexFilter( "(?i)" + Pattern.quote( filterField.getText() ), 0 ) );
+
+            }
+
+        });
+
+        //Creating scroll pane, so table can contain more games that the frame height would normally allow.
+        JScrollPane scrollPane = new JScrollPane( gameTable );
+        scrollPane.setPreferredSize( new Dimension( 560, 320 ) );
+
+        //Placing filter field above table.
+        JPanel filterPanel = new JPanel( new BorderLayout( 5, 0 ) );
+        filterPanel.add( new JLabel( "Filter:" ), BorderLayout.WEST );
+        filterPanel.add( filterField, BorderLayout.CENTER );
+
+        JPanel mainPanel = new JPanel( new BorderLayout( 0, 5 ) );
+        mainPanel.add( filterPanel, BorderLayout.NORTH );
+        mainPanel.add( scrollPane, BorderLayout.CENTER );
+
+        //Creating and configuring option pane containing table and no buttons.
+        final JOptionPane loadDialog = new JOptionPane( mainPanel, JOptionPane.PLAIN_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[ 0 ], null );
+
+        //Adding anonymous mouse listener to table.
+        gameTable.addMouseListener( new MouseListener () {
 
             public void mousePressed ( MouseEvent e )
             {
 
-                //If user double-clicks on list.
+                //If user double-clicks on table.
                 if ( e.getButton() == MouseEvent.BUTTON1 && e.getClickCount() == 2 )
                 {
 
-                    //Gets list item at clicked location.
-                    int selectionIndex = fileList.locationToIndex( e.getPoint() );
+                    //Gets table row at clicked location.
+                    int selectionIndex = gameTable.rowAtPoint( e.getPoint() );
 
-                    //If list item exists
+                    //If table row exists
                     if ( selectionIndex != -1 )
                     {
 
-                        //Sets value of the dialog frame to selected file.
-                        loadDialog.setValue( inSaveFiles.get( selectionIndex ) );
+                        //Sets value of the dialog frame to selected entry. Rows are sorted, so the row is converted to its entry.
+                        loadDialog.setValue( inEntries.get( gameTable.convertRowIndexToModel( selectionIndex ) ) );
 
                     }
 
@@ -93,8 +156,10 @@ public class LoadGameDialog extends JOptionPane
         JDialog displayDialog = loadDialog.createDialog( null, "Load Game" );
         displayDialog.setVisible( true );
 
-        //Returns selected value of option pane as a File.
-        return ( File ) loadDialog.getValue();
+        //Returns selected value of option pane as a catalog entry, if user selected one.
+        if ( loadDialog.getValue() instanceof SaveCatalog.Entry ) { return ( SaveCatalog.Entry ) loadDialog.getValue(); }
+
+        return null;
 
     }
 
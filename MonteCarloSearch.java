@@ -0,0 +1,678 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+    Class that chooses moves by Monte Carlo Tree Search: a tree of moves is grown from the current position, one random
+    playout at a time. Each playout follows the tree down by UCT, choosing the move that best balances how often it has won
+    and how little it has been tried, then plays a random game from the end of that line, and counts the result in every
+    move along the line. The move tried most often is played.
+
+    Every core searches the same tree at once. The visits and wins of each node are updated with atomic additions, so no
+    thread ever waits for another. A thread passing through a node counts a virtual loss against it, visits that have not
+    been won, until its playout is counted. Threads following each other down the tree see the line already being searched
+    as worse than it is, and spread out to other lines.
+
+    The same position is often reached by different orders of moves, each with a node of its own. Results are also counted
+    in a transposition table, under the position each node leads to, and a node is judged by the table's results for its
+    position whenever they come from more playouts than its own. The table is kept between searches of the same game.
+
+    The tree is held in arrays created once, with one entry per node, rather than in an object per node, so searching never
+    creates garbage for the collector to stall the board over. The children of a node sit side by side in the arrays, and are
+    taken from the unused end of the arrays when the node is expanded. Each search starts again from the start of the arrays.
+    Once the arrays are full, the tree stops growing, and the remaining playouts refine the tree as it is.
+
+    A search of a position reached from the last position searched keeps the part of the tree below the moves played since,
+    instead of starting from nothing. The child reached by those moves becomes the root, and the nodes below it are moved
+    down to the start of the arrays, in the order they were created, while the rest of the tree is dropped.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class MonteCarloSearch
+{
+
+    //Number of nodes held by a search created without a capacity, the most any search is given by getCapacity. Each node takes
+    //36 bytes, so these take 72 MB.
+    public static final int DEFAULT_CAPACITY = 1 << 21;
+
+    //Fewest nodes given by getCapacity.
+    private static final int MINIMUM_CAPACITY = 1 << 14;
+
+    //Milliseconds each thread takes to add as many nodes as the board's points squared, halved to leave room for the part of
+    //the tree kept from one move to the next. Trees were measured to grow by about a fifth of the points squared each second.
+    private static final long MILLISECONDS_PER_SQUARED_POINT = 2500;
+
+    //Number of nodes for each entry in the transposition table. Each entry takes 16 bytes, so a full search adds 16 MB.
+    private static final int NODES_PER_TABLE_ENTRY = 2;
+
+    //Weight of trying moves that have been tried less, against playing moves that have won more.
+    private static final double EXPLORATION = 0.7;
+
+    //Number of playouts through a leaf before it is expanded. Expanding a node adds a child for nearly every point of the board.
+    private static final int EXPANSION_VISITS = 8;
+
+    //Number of lost visits added to a node by each thread passing through it.
+    private static final int VIRTUAL_LOSS = 3;
+
+    //Results of a playout, counted in half wins so a draw is a whole number.
+    private static final int WIN = 2, DRAW = 1, LOSS = 0;
+
+    //Values of a node's first child before the node has been expanded, and while one thread is expanding it.
+    private static final int NOT_EXPANDED = -1, EXPANDING = -2;
+
+    //Index of the root node, which is always the first.
+    private static final int ROOT = 0;
+
+    private int threadCount;
+    private volatile boolean stopping;
+    private int lastPlayoutCount;
+
+    //Arrays holding each node of the tree.
+    private int[] moves;
+    private int[] childCounts;
+    private AtomicIntegerArray firstChildren;
+    private AtomicIntegerArray visits;
+    private AtomicIntegerArray wins;
+    private AtomicIntegerArray threadsInside;
+    private AtomicLongArray positionKeys;
+    private AtomicInteger nodeCount;
+    private int[] compactedIndexes;
+    private TranspositionTable table;
+
+    //The position at the root of the tree, as the moves that led to it.
+    private int rootBoardSize;
+    private int rootMoveCount;
+    private int[] rootMoves;
+    private long[] rootBlackStones;
+    private long[] rootWhiteStones;
+    private Player.Color rootStartingTurn;
+    private int reusedPlayoutCount;
+
+    /**
+        Constructor. Creates a search using the given number of threads, holding up to <code>DEFAULT_CAPACITY</code> nodes.
+        @param int Number of threads, usually the number of cores.
+    */
+    public MonteCarloSearch ( int inThreadCount ) { this( inThreadCount, DEFAULT_CAPACITY ); }
+
+    /**
+        Returns the number of nodes a search of the given board size needs, searching for the given time on the given number of
+        threads. Small boards need far fewer nodes than <code>DEFAULT_CAPACITY</code>, which is the most this returns.
+        @param int Board size.
+        @param int Number of threads.
+        @param long Time of each search, in milliseconds.
+        @return int
+    */
+    public static int getCapacity ( int inBoardSize, int inThreadCount, long inMilliseconds )
+    {
+
+        long points = inBoardSize * inBoardSize;
+        long capacity = points * points * Math.max( 1, inThreadCount ) * inMilliseconds / MILLISECONDS_PER_SQUARED_POINT;
+
+        return (int) Math.max( MINIMUM_CAPACITY, Math.min( DEFAULT_CAPACITY, capacity ) );
+
+    }
+
+    /**
+        Constructor. Creates a search using the given number of threads, holding up to the given number of nodes.
+        @param int Number of threads, usually the number of cores.
+        @param int Largest number of nodes in the tree.
+    */
+    public MonteCarloSearch ( int inThreadCount, int inCapacity )
+    {
+
+        this.threadCount = Math.max( 1, inThreadCount );
+
+        //Creating every node the search will ever use.
+        this.moves = new int[ inCapacity ];
+        this.childCounts = new int[ inCapacity ];
+        this.firstChildren = new AtomicIntegerArray( inCapacity );
+        this.visits = new AtomicIntegerArray( inCapacity );
+        this.wins = new AtomicIntegerArray( inCapacity );
+        this.threadsInside = new AtomicIntegerArray( inCapacity );
+        this.positionKeys = new AtomicLongArray( inCapacity );
+        this.nodeCount = new AtomicInteger();
+        this.compactedIndexes = new int[ inCapacity ];
+        this.rootMoves = new int[ 0 ];
+        this.table = new TranspositionTable( inCapacity / NODES_PER_TABLE_ENTRY );
+
+    }
+
+    /**
+        Searches the given position for the given time, then returns the move tried most often. Only one search runs at a
+        time; a search started while another is running waits for it to finish. A search started on an interrupted thread, or
+        interrupted while running, stops early.
+        @param GameState Position to search. Left unchanged.
+        @param long Time to search for, in milliseconds.
+        @return int Point of move, or <code>GameState.NO_POINT</code> to pass.
+    */
+    public synchronized int search ( final GameState inState, long inMilliseconds )
+    {
+
+        final long end = System.nanoTime() + inMilliseconds * 1000000L;
+        final int[] playoutCounts = new int[ this.threadCount ];
+        Thread[] threads = new Thread[ this.threadCount ];
+        boolean interrupted = Thread.currentThread().isInterrupted();
+
+        this.stopping = interrupted;
+
+        int reusedRoot = this.findReusableRoot( inState );
+
+        //Keeping the tree below the moves played since the last search, or emptying the tree and table, leaving only the root.
+        if ( reusedRoot != -1 ) { this.promote( reusedRoot ); }
+        else
+        {
+
+            this.table.clear();
+            this.nodeCount.set( 0 );
+            this.allocate( 1 );
+            this.initializeNode( ROOT, GameState.NO_POINT );
+
+        }
+
+        this.reusedPlayoutCount = this.visits.get( ROOT );
+        this.setRoot( inState );
+
+        //Starting every thread on the same tree.
+        for ( int i = 0; i < this.threadCount; i++ )
+        {
+
+            final int index = i;
+
+            threads[ i ] = new Thread( new Runnable () {
+
+                public void run () { playoutCounts[ index ] = MonteCarloSearch.this.searchUntil( inState, end, index + 1 ); }
+
+            }, "Search " + i );
+
+            threads[ i ].start();
+
+        }
+
+        this.lastPlayoutCount = 0;
+
+        //Waiting for every thread, even once interrupted, so no thread is left using the tree after the search returns.
+        for ( int i = 0; i < this.threadCount; i++ )
+        {
+
+            while ( threads[ i ].isAlive() )
+            {
+
+                try { threads[ i ].join(); }
+                catch ( InterruptedException e )
+                {
+
+                    //Stopping the search early, and playing the best move found so far.
+                    this.stopping = true;
+                    interrupted = true;
+
+                }
+
+            }
+
+            this.lastPlayoutCount += playoutCounts[ i ];
+
+        }
+
+        if ( interrupted ) { Thread.currentThread().interrupt(); }
+
+        return this.getMostVisitedMove();
+
+    }
+
+    /**
+        Stops a search in progress, which then returns the best move it has found. Waits until the search has returned, and
+        every one of its threads has finished, so the search can be used again at once.
+        @return void
+    */
+    public void stop ()
+    {
+
+        this.stopping = true;
+
+        //Waiting for the lock a running search holds until it returns.
+        synchronized ( this ) {}
+
+    }
+
+    /**
+        Returns the number of playouts played by the last search.
+        @return int
+    */
+    public int getLastPlayoutCount () { return this.lastPlayoutCount; }
+
+    /**
+        Returns the number of playouts of earlier searches kept in the tree at the start of the last search.
+        @return int
+    */
+    public int getReusedPlayoutCount () { return this.reusedPlayoutCount; }
+
+    /**
+        Returns the number of nodes in the tree of the last search.
+        @return int
+    */
+    public int getNodeCount () { return Math.min( this.nodeCount.get(), this.moves.length ); }
+
+    /**
+        Runs on each search thread. Plays playouts through the tree until the search ends.
+        @param GameState Position at root of tree.
+        @param long Time to stop, from <code>System.nanoTime</code>.
+        @param long Seed of the thread's random playouts.
+        @return int Number of playouts played.
+    */
+    private int searchUntil ( GameState inState, long end, long seed )
+    {
+
+        //Each thread plays in a game and playout engine of its own.
+        GameState scratch = new GameState( inState.getBoardSize() );
+        PlayoutEngine engine = new PlayoutEngine( inState.getBoardSize(), seed );
+        int[] path = new int[ 8 * inState.getPointCount() ];
+        int[] moveBuffer = new int[ inState.getPointCount() ];
+        int playouts = 0;
+
+        while ( !this.stopping && System.nanoTime() < end )
+        {
+
+            scratch.copyFrom( inState );
+
+            int length = 0;
+            int node = ROOT;
+
+            //Following the tree down, counting a virtual loss against each node passed through.
+            this.threadsInside.incrementAndGet( node );
+            path[ length++ ] = node;
+
+            while ( this.firstChildren.get( node ) >= 0 && !scratch.isGameOver() && length < path.length )
+            {
+
+                node = this.select( node );
+                this.enter( node, scratch );
+                path[ length++ ] = node;
+
+            }
+
+            //Adding the moves of a node's position to the tree, once enough playouts have passed through it.
+            if ( !scratch.isGameOver() && length < path.length && ( node == ROOT || this.visits.get( node ) >= EXPANSION_VISITS ) && this.expand( node, scratch, moveBuffer ) )
+            {
+
+                node = this.select( node );
+                this.enter( node, scratch );
+                path[ length++ ] = node;
+
+            }
+
+            //Playing the rest of the game at random, then giving white its komi.
+            engine.finishGame( scratch );
+            double score = scratch.getBlackScore() - scratch.getWhiteScore() - GameState.KOMI;
+
+            //Counting the result in every node along the line, and the table, for the player who's move led to the node, and taking back the virtual losses.
+            Player.Color mover = inState.getTurn();
+
+            for ( int i = 1; i < length; i++ )
+            {
+
+                int result = ( score == 0 ) ? DRAW : ( ( score > 0 ) == ( mover == Player.Color.BLACK ) ) ? WIN : LOSS;
+
+                this.wins.addAndGet( path[ i ], result );
+                this.visits.incrementAndGet( path[ i ] );
+                this.threadsInside.decrementAndGet( path[ i ] );
+                this.table.add( this.positionKeys.get( path[ i ] ), result );
+
+                mover = ( mover == Player.Color.BLACK ) ? Player.Color.WHITE : Player.Color.BLACK;
+
+            }
+
+            this.visits.incrementAndGet( ROOT );
+            this.threadsInside.decrementAndGet( ROOT );
+            playouts++;
+
+        }
+
+        return playouts;
+
+    }
+
+    /**
+        Plays the move of the given node in the thread's game, counting a virtual loss against the node. The key of the
+        position the node leads to is kept the first time it is entered.
+        @param int Node to enter.
+        @param GameState Thread's game, at the position of the node's parent.
+        @return void
+    */
+    private void enter ( int node, GameState scratch )
+    {
+
+        scratch.playMove( this.moves[ node ] );
+        this.threadsInside.incrementAndGet( node );
+
+        if ( this.positionKeys.get( node ) == 0 ) { this.positionKeys.set( node, TranspositionTable.getKey( scratch ) ); }
+
+    }
+
+    /**
+        Returns the child of the given node with the highest upper confidence bound. Children that have not been visited are
+        chosen first. Each thread inside a node counts as that many lost visits.
+        @param int Expanded node to choose a child of.
+        @return int
+    */
+    private int select ( int node )
+    {
+
+        int firstChild = this.firstChildren.get( node );
+        int lastChild = firstChild + this.childCounts[ node ];
+        double logVisits = Math.log( Math.max( 1, this.visits.get( node ) + VIRTUAL_LOSS * this.threadsInside.get( node ) ) );
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int best = firstChild;
+
+        for ( int child = firstChild; child < lastChild; child++ )
+        {
+
+            int childVisits = this.visits.get( child );
+            int virtualLosses = VIRTUAL_LOSS * this.threadsInside.get( child );
+
+            if ( childVisits + virtualLosses == 0 ) { return child; }
+
+            int wins = this.wins.get( child );
+            int tableVisits = childVisits;
+            long key = this.positionKeys.get( child );
+
+            //Judging the child by the results of every line reaching its position, if there are more of them.
+            if ( key != 0 )
+            {
+
+                long results = this.table.get( key );
+
+                if ( TranspositionTable.getVisits( results ) > childVisits )
+                {
+
+                    tableVisits = TranspositionTable.getVisits( results );
+                    wins = TranspositionTable.getWins( results );
+
+                }
+
+            }
+
+            double value = wins / ( 2.0 * ( tableVisits + virtualLosses ) ) + EXPLORATION * Math.sqrt( logVisits / ( childVisits + virtualLosses ) );
+
+            if ( value > bestValue )
+            {
+
+                bestValue = value;
+                best = child;
+
+            }
+
+        }
+
+        return best;
+
+    }
+
+    /**
+        Adds a child to the given node for every legal move in the given position that does not fill one of the player's own
+        eyes, and for passing. Only one thread can expand a node; the others, and every thread once the tree is full, leave it
+        as it is.
+        @param int Node to expand.
+        @param GameState Position of node.
+        @param int[] Buffer to hold legal moves in.
+        @return boolean If the node was expanded.
+    */
+    private boolean expand ( int node, GameState inState, int[] moveBuffer )
+    {
+
+        if ( !this.firstChildren.compareAndSet( node, NOT_EXPANDED, EXPANDING ) ) { return false; }
+
+        int count = 0;
+        int legalCount = inState.getLegalMoves( moveBuffer );
+
+        //Keeping the moves that do not fill an eye, at the start of the buffer.
+        for ( int i = 0; i < legalCount; i++ )
+        {
+
+            if ( !PlayoutEngine.isOwnEye( inState, moveBuffer[ i ], inState.getTurn() ) ) { moveBuffer[ count++ ] = moveBuffer[ i ]; }
+
+        }
+
+        int firstChild = this.allocate( count + 1 );
+
+        //Leaving the node unexpanded if the tree is full.
+        if ( firstChild == -1 )
+        {
+
+            this.firstChildren.set( node, NOT_EXPANDED );
+            return false;
+
+        }
+
+        for ( int i = 0; i < count; i++ ) { this.initializeNode( firstChild + i, moveBuffer[ i ] ); }
+
+        this.initializeNode( firstChild + count, GameState.NO_POINT );
+
+        //Publishing the children last, so threads that see them also see their moves.
+        this.childCounts[ node ] = count + 1;
+        this.firstChildren.set( node, firstChild );
+
+        return true;
+
+    }
+
+    /**
+        Takes the given number of nodes, side by side, from the unused end of the arrays.
+        @param int Number of nodes.
+        @return int Index of first node, or -1 if the tree is full.
+    */
+    private int allocate ( int count )
+    {
+
+        //Taking the nodes only if they all fit, so the count never goes past the end of the arrays, however many threads race.
+        while ( true )
+        {
+
+            int first = this.nodeCount.get();
+
+            if ( first + count > this.moves.length ) { return -1; }
+
+            if ( this.nodeCount.compareAndSet( first, first + count ) ) { return first; }
+
+        }
+
+    }
+
+    /**
+        Sets the given node to a leaf reached by the given move, which has not been visited.
+        @param int Node.
+        @param int Point of move, or <code>GameState.NO_POINT</code> for a pass.
+        @return void
+    */
+    private void initializeNode ( int node, int move )
+    {
+
+        this.moves[ node ] = move;
+        this.childCounts[ node ] = 0;
+        this.visits.set( node, 0 );
+        this.wins.set( node, 0 );
+        this.threadsInside.set( node, 0 );
+        this.positionKeys.set( node, 0 );
+        this.firstChildren.set( node, NOT_EXPANDED );
+
+    }
+
+    /**
+        Returns the node reached from the root by the moves played in the given game since the last search, or -1 if the game
+        was not reached from the position last searched, or the moves leave the tree.
+        @param GameState Position about to be searched.
+        @return int
+    */
+    private int findReusableRoot ( GameState inState )
+    {
+
+        if ( this.nodeCount.get() == 0 || inState.getBoardSize() != this.rootBoardSize || inState.getMoveCount() < this.rootMoveCount ) { return -1; }
+
+        //Checking the game started the same way, and played the same moves up to the position last searched.
+        if ( inState.getStartingTurn() != this.rootStartingTurn || !Arrays.equals( inState.getStartingStones( Player.Color.BLACK ), this.rootBlackStones ) || !Arrays.equals( inState.getStartingStones( Player.Color.WHITE ), this.rootWhiteStones ) ) { return -1; }
+
+        for ( int i = 0; i < this.rootMoveCount; i++ )
+        {
+
+            if ( inState.getMove( i ) != this.rootMoves[ i ] ) { return -1; }
+
+        }
+
+        int node = ROOT;
+
+        //Following the moves played since down the tree.
+        for ( int i = this.rootMoveCount; i < inState.getMoveCount() && node != -1; i++ ) { node = this.findChild( node, inState.getMove( i ) ); }
+
+        return node;
+
+    }
+
+    /**
+        Returns the child of the given node reached by the given move, or -1 if the node has no such child.
+        @param int Node.
+        @param int Point of move, or <code>GameState.NO_POINT</code> for a pass.
+        @return int
+    */
+    private int findChild ( int node, int move )
+    {
+
+        int firstChild = this.firstChildren.get( node );
+
+        for ( int child = firstChild; firstChild >= 0 && child < firstChild + this.childCounts[ node ]; child++ )
+        {
+
+            if ( this.moves[ child ] == move ) { return child; }
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+        Makes the given node the root, keeping only the nodes below it, which are moved to the start of the arrays.
+
+        Children are always created after their parent, so sweeping the arrays in order finds every node below the new root,
+        and each kept node is only ever moved to an index at or before its own, never over a node not yet moved.
+        @param int Node to make the root.
+        @return void
+    */
+    private void promote ( int newRoot )
+    {
+
+        int end = this.getNodeCount();
+        int count = 0;
+
+        Arrays.fill( this.compactedIndexes, newRoot, end, -1 );
+        this.compactedIndexes[ newRoot ] = 0;
+
+        //Marking every node below the new root, and giving each the index it will be moved to.
+        for ( int node = newRoot; node < end; node++ )
+        {
+
+            if ( this.compactedIndexes[ node ] == -1 ) { continue; }
+
+            this.compactedIndexes[ node ] = count++;
+
+            int firstChild = this.firstChildren.get( node );
+
+            for ( int child = firstChild; firstChild >= 0 && child < firstChild + this.childCounts[ node ]; child++ ) { this.compactedIndexes[ child ] = 0; }
+
+        }
+
+        //Moving each kept node down to its new index.
+        for ( int node = newRoot; node < end; node++ )
+        {
+
+            int index = this.compactedIndexes[ node ];
+
+            if ( index == -1 ) { continue; }
+
+            int firstChild = this.firstChildren.get( node );
+
+            this.moves[ index ] = this.moves[ node ];
+            this.childCounts[ index ] = this.childCounts[ node ];
+            this.visits.set( index, this.visits.get( node ) );
+            this.wins.set( index, this.wins.get( node ) );
+            this.positionKeys.set( index, this.positionKeys.get( node ) );
+            this.firstChildren.set( index, ( firstChild >= 0 ) ? this.compactedIndexes[ firstChild ] : NOT_EXPANDED );
+
+        }
+
+        this.nodeCount.set( count );
+
+    }
+
+    /**
+        Remembers the given game as the position at the root of the tree.
+        @param GameState Position about to be searched.
+        @return void
+    */
+    private void setRoot ( GameState inState )
+    {
+
+        if ( this.rootMoves.length < inState.getMoveCount() ) { this.rootMoves = new int[ Math.max( inState.getMoveCount(), 2 * this.rootMoves.length ) ]; }
+
+        for ( int i = 0; i < inState.getMoveCount(); i++ ) { this.rootMoves[ i ] = inState.getMove( i ); }
+
+        this.rootBoardSize = inState.getBoardSize();
+        this.rootMoveCount = inState.getMoveCount();
+        this.rootBlackStones = inState.getStartingStones( Player.Color.BLACK );
+        this.rootWhiteStones = inState.getStartingStones( Player.Color.WHITE );
+        this.rootStartingTurn = inState.getStartingTurn();
+
+    }
+
+    /**
+        Returns the move of the root's most visited child, or a pass if the root has no children.
+        @return int
+    */
+    private int getMostVisitedMove ()
+    {
+
+        int firstChild = this.firstChildren.get( ROOT );
+
+        if ( firstChild < 0 ) { return GameState.NO_POINT; }
+
+        int best = firstChild;
+
+        for ( int child = firstChild; child < firstChild + this.childCounts[ ROOT ]; child++ )
+        {
+
+            if ( this.visits.get( child ) > this.visits.get( best ) ) { best = child; }
+
+        }
+
+        return this.moves[ best ];
+
+    }
+
+    /**
+        Main method. Checks that a search can keep a full tree: fills a small tree on a 9 x 9 board, then searches the same
+        position, and the position after two more moves, reusing the tree each time.
+        @param String[] Unused.
+        @return void
+    */
+    public static void main ( String[] args )
+    {
+
+        MonteCarloSearch search = new MonteCarloSearch( Runtime.getRuntime().availableProcessors(), 2000 );
+        GameState state = new GameState( Board.SMALL_BOARD );
+
+        search.search( state, 500 );
+        System.out.println( "Filled tree: " + search.getNodeCount() + " of 2000 nodes." );
+
+        //Searching the same position again keeps the whole tree.
+        search.search( state, 200 );
+        System.out.println( "Same position: kept " + search.getReusedPlayoutCount() + " playouts." );
+
+        //Playing the chosen move and a reply keeps the tree below them.
+        state.playMove( search.search( state, 200 ) );
+        state.playMove( search.search( state, 200 ) );
+        search.search( state, 200 );
+        System.out.println( "After two moves: kept " + search.getReusedPlayoutCount() + " playouts, " + search.getNodeCount() + " nodes." );
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,397 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+    Class that keeps a game's save file up to date as the game is played, so a game is not lost if the program stops.
+
+    The file starts as a complete save file. Every move played after that is appended to the end of the file, where
+    <code>SaveFile</code> reads it as part of the game. Moves are written by a thread of their own, which writes every move
+    waiting to be written and forces them to the disk together, so moves played close together share a single disk write.
+
+    The header at the start of the file is rewritten along with every write, so it always describes the game as far as it has
+    been written.
+
+    Once enough moves have been appended, the file is compacted: the whole game is written to a new save file, which then
+    replaces the old one, so the file can always be read whole even if the program stops part of the way through. The game is
+    encoded when compaction is asked for, and the new file is written by the journal's thread, so neither appending nor
+    compacting waits for the disk.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class MoveJournal
+{
+
+    //Number of moves appended to a file before it is compacted.
+    public static final int COMPACTION_THRESHOLD = 256;
+
+    private final Object lock = new Object();
+    private GameState state;
+    private File file;
+    private FileChannel channel;
+    private ByteBuffer compaction;
+    private File compactionFile;
+    private ArrayList<File> leftFiles;
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private ByteBuffer pendingHeader;
+    private ByteBuffer writingHeader;
+    private long end;
+    private long appendedMoves;
+    private long committedMoves;
+    private long requestedCompactions;
+    private long writtenCompactions;
+    private int movesSinceCompaction;
+    private boolean closed;
+    private IOException failure;
+    private Thread writer;
+
+    /**
+        Constructor. Writes the given game to the given file, then keeps the file up to date with every move appended.
+        The file is written by the journal's thread, once <code>start</code> is called. Moves appended before then wait to be
+        written. A problem writing the file is given to the next call to the journal.
+        @param GameState Game to keep saved.
+        @param File Save file of game.
+    */
+    public MoveJournal ( GameState inState, File inFile )
+    {
+
+        this.state = inState;
+        this.pending = ByteBuffer.allocate( 1024 );
+        this.writing = ByteBuffer.allocate( 1024 );
+        this.pendingHeader = ByteBuffer.allocate( SaveHeader.LENGTH );
+        this.writingHeader = ByteBuffer.allocate( SaveHeader.LENGTH );
+        this.leftFiles = new ArrayList<File>();
+
+        //Asking for the whole game to be written, before any moves are appended to the file.
+        this.requestCompaction( inFile );
+
+        //Creating the thread that writes appended moves.
+        this.writer = new Thread( new Runnable () {
+
+            public void run () { MoveJournal.this.writeMoves(); }
+
+        }, "Move journal" );
+
+        this.writer.setDaemon( true );
+
+    }
+
+    /**
+        Starts writing the game, and every move appended, to the file. Until then nothing is written, so a journal can be
+        created before another journal writing the same file has been closed, and started once it has.
+        @return void
+    */
+    public synchronized void start ()
+    {
+
+        if ( this.writer.getState() == Thread.State.NEW ) { this.writer.start(); }
+
+    }
+
+    /**
+        Returns the save file this journal writes to, including a file it is still moving the game to.
+        @return File
+    */
+    public File getFile () { return this.file; }
+
+    /**
+        Appends a move that has just been played to the save file, once the turn has passed to the next player, as the header
+        written with it describes the game as it is now. The move is written by the journal's own thread.
+        @param int Point the move was played at, or <code>GameState.NO_POINT</code> for a pass.
+        @return void
+    */
+    public void append ( int point ) throws IOException
+    {
+
+        synchronized ( this.lock )
+        {
+
+            if ( this.failure != null ) { throw this.failure; }
+            if ( this.closed ) { throw new IOException( "The move journal has been closed." ); }
+
+            //Making room for the move, if moves are being played faster than they can be written.
+            if ( this.pending.remaining() < SaveFile.MAX_MOVE_LENGTH )
+            {
+
+                ByteBuffer larger = ByteBuffer.allocate( this.pending.capacity() * 2 );
+                this.pending.flip();
+                larger.put( this.pending );
+                this.pending = larger;
+
+            }
+
+            SaveFile.putMove( this.pending, point );
+            this.appendedMoves++;
+
+            //Describing the game as it is after the move, to replace the header when the move is written.
+            this.pendingHeader.clear();
+            SaveFile.getHeader( this.state ).put( this.pendingHeader );
+
+            //Folding the appended moves into a new save file, once there are enough of them.
+            if ( ++this.movesSinceCompaction >= COMPACTION_THRESHOLD ) { this.requestCompaction( this.file ); }
+
+            //Waking the writer.
+            this.lock.notifyAll();
+
+        }
+
+    }
+
+    /**
+        Waits until every move appended so far, and every compaction asked for, is on the disk. Must only be called once the
+        journal has been started.
+        @return void
+    */
+    public void flush () throws IOException
+    {
+
+        synchronized ( this.lock )
+        {
+
+            long target = this.appendedMoves;
+            long compactionTarget = this.requestedCompactions;
+
+            while ( ( this.committedMoves < target || this.writtenCompactions < compactionTarget ) && this.failure == null )
+            {
+
+                try { this.lock.wait(); }
+                catch ( InterruptedException e )
+                {
+
+                    //Keeping the interrupt for the caller, and giving up on waiting.
+                    Thread.currentThread().interrupt();
+                    return;
+
+                }
+
+            }
+
+            if ( this.failure != null ) { throw this.failure; }
+
+        }
+
+    }
+
+    /**
+        Writes the whole game to the given file, replacing the file this journal has been writing to, then appends every later
+        move to the new file. The old file is deleted if it is a different file.
+        The game is encoded before this returns, and written by the journal's thread. <code>flush</code> waits for it to be written.
+        @param File New save file of game.
+        @return void
+    */
+    public void compact ( File inFile ) throws IOException
+    {
+
+        synchronized ( this.lock )
+        {
+
+            if ( this.failure != null ) { throw this.failure; }
+            if ( this.closed ) { throw new IOException( "The move journal has been closed." ); }
+
+            this.requestCompaction( inFile );
+            this.lock.notifyAll();
+
+        }
+
+    }
+
+    /**
+        Writes every appended move to the disk, then stops the writer and closes the file.
+        @return void
+    */
+    public void close () throws IOException
+    {
+
+        synchronized ( this.lock )
+        {
+
+            if ( this.closed ) { return; }
+
+            this.closed = true;
+            this.lock.notifyAll();
+
+        }
+
+        //Starting the writer, if it never was, so every move appended is still written.
+        this.start();
+
+        //Waiting for the writer to write every move that is left.
+        try { this.writer.join(); }
+        catch ( InterruptedException e ) { Thread.currentThread().interrupt(); }
+
+        synchronized ( this.lock )
+        {
+
+            if ( this.channel != null ) { this.channel.close(); }
+
+            if ( this.failure != null ) { throw this.failure; }
+
+        }
+
+    }
+
+    /**
+        Encodes the whole game, to be written to the given file by the writer. Moves waiting to be written are part of the
+        encoded game, so they are no longer written on their own. Must be called holding the lock.
+        @param File New save file of game.
+        @return void
+    */
+    private void requestCompaction ( File inFile )
+    {
+
+        //Remembering the file the game is leaving, to delete once the new file is written.
+        if ( this.file != null && !this.file.equals( inFile ) ) { this.leftFiles.add( this.file ); }
+
+        this.compaction = SaveFile.encode( this.state );
+        this.compactionFile = inFile;
+        this.requestedCompactions++;
+        this.file = inFile;
+        this.pending.clear();
+        this.movesSinceCompaction = 0;
+
+    }
+
+    /**
+        Runs on the journal's own thread. Waits for moves to be appended, then writes every waiting move and forces them
+        to the disk together.
+        @return void
+    */
+    private void writeMoves ()
+    {
+
+        while ( true )
+        {
+
+            long batchEnd;
+            long batchCompactions;
+            ByteBuffer batchCompaction;
+            File batchCompactionFile;
+            ArrayList<File> batchLeftFiles = null;
+
+            synchronized ( this.lock )
+            {
+
+                //Waiting for moves, or a compaction, to write.
+                while ( this.pending.position() == 0 && this.compaction == null && !this.closed )
+                {
+
+                    try { this.lock.wait(); }
+                    catch ( InterruptedException e )
+                    {
+
+                        //Moves can no longer be saved. Waking anyone waiting for them, so they are given the failure.
+                        this.failure = new IOException( "The move journal's writer was interrupted." );
+                        this.lock.notifyAll();
+                        return;
+
+                    }
+
+                }
+
+                if ( this.pending.position() == 0 && this.compaction == null ) { return; }
+
+                //Taking the compaction asked for, if any. Every move waiting to be written was appended after it.
+                batchCompaction = this.compaction;
+                batchCompactionFile = this.compactionFile;
+                this.compaction = null;
+
+                if ( batchCompaction != null )
+                {
+
+                    batchLeftFiles = this.leftFiles;
+                    this.leftFiles = new ArrayList<File>();
+
+                }
+
+                //Taking every waiting move. Moves appended from now on wait for the next write.
+                ByteBuffer temp = this.writing;
+                this.writing = this.pending;
+                this.pending = temp;
+                this.pending.clear();
+
+                //Taking the newest header as well.
+                this.writingHeader.clear();
+                this.writingHeader.put( this.pendingHeader.array() );
+                this.writingHeader.flip();
+
+                batchEnd = this.appendedMoves;
+                batchCompactions = this.requestedCompactions;
+
+            }
+
+            try
+            {
+
+                //Writing the whole game to its new file, then opening the file to append moves to it.
+                if ( batchCompaction != null )
+                {
+
+                    SaveFile.write( batchCompaction, batchCompactionFile, null );
+
+                    if ( this.channel != null ) { this.channel.close(); }
+
+                    //Removing the old files, if the game has moved to a new one.
+                    for ( File element : batchLeftFiles )
+                    {
+
+                        if ( !element.equals( batchCompactionFile ) ) { element.delete(); }
+
+                    }
+
+                    this.channel = FileChannel.open( batchCompactionFile.toPath(), StandardOpenOption.WRITE );
+                    this.end = this.channel.size();
+
+                }
+
+                //Writing the moves at the end of the file, then the header at its start, then forcing both to the disk.
+                this.writing.flip();
+
+                if ( this.writing.hasRemaining() )
+                {
+
+                    while ( this.writing.hasRemaining() ) { this.end += this.channel.write( this.writing, this.end ); }
+
+                    for ( long position = 0; this.writingHeader.hasRemaining(); ) { position += this.channel.write( this.writingHeader, position ); }
+
+                    this.channel.force( false );
+
+                }
+
+            }
+            catch ( IOException e )
+            {
+
+                //Moves can no longer be saved. The failure is given to the next call to the journal.
+                synchronized ( this.lock )
+                {
+
+                    this.failure = e;
+                    this.lock.notifyAll();
+
+                }
+
+                return;
+
+            }
+
+            this.writing.clear();
+
+            synchronized ( this.lock )
+            {
+
+                this.committedMoves = batchEnd;
+                this.writtenCompactions = batchCompactions;
+                this.lock.notifyAll();
+
+            }
+
+        }
+
+    }
+
+}
\ No newline at end of file
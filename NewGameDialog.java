@@ -1,6 +1,7 @@
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JOptionPane;
@@ -15,8 +16,11 @@ import javax.swing.ImageIcon;
 public class NewGameDialog extends JOptionPane
 {
     
+    //If the player chose to play against the computer, the last time the dialog was shown.
+    private static boolean computerOpponentChosen = false;
+    
     /**
-        Shows a dialog for selecting a board size.
+        Shows a dialog for selecting a board size, and if the game is played against the computer.
         @return int size of board.
     */
     public static int showNewGameDialog ()
@@ -25,6 +29,9 @@ public class NewGameDialog extends JOptionPane
         //Making image label, adding to frame.
         JLabel logoLabel = new JLabel( new ImageIcon( "logo.png" ) );
         
+        //Creating check box for playing against the computer, checked if it was last time.
+        JCheckBox computerBox = new JCheckBox( "Play against the computer", NewGameDialog.computerOpponentChosen );
+        
         //Creating Board size buttons.
         JButton[] buttons = new JButton[ 3 ];
         buttons[ 0 ] = new JButton( "19 x 19" );
@@ -33,7 +40,7 @@ public class NewGameDialog extends JOptionPane
 
         
         //Creating JOptionPane
-        final JOptionPane newGameDialog = new JOptionPane( logoLabel, JOptionPane.PLAIN_MESSAGE, JOptionPane.DEFAULT_OPTION, null, buttons, buttons[ 0 ] );
+        final JOptionPane newGameDialog = new JOptionPane( new Object[] { logoLabel, computerBox }, JOptionPane.PLAIN_MESSAGE, JOptionPane.DEFAULT_OPTION, null, buttons, buttons[ 0 ] );
         
         //Adding anonymous listener to 19 x 19 button.
         buttons[ 0 ].addActionListener( new ActionListener () {
@@ -62,6 +69,9 @@ public class NewGameDialog extends JOptionPane
         //Creates visible dialog frame from option pane, sets to visible.
         JDialog displayDialog = newGameDialog.createDialog( null, "New Game" );
         displayDialog.setVisible( true );
+        
+        //Remembering if the player chose to play against the computer.
+        NewGameDialog.computerOpponentChosen = computerBox.isSelected();
 
         //Returns selected value of option pane as a File.
         if ( newGameDialog.getValue() instanceof Integer ) { return ( Integer ) newGameDialog.getValue(); }
@@ -69,4 +79,10 @@ public class NewGameDialog extends JOptionPane
         
     }
     
+    /**
+        Returns if the player chose to play against the computer, the last time the dialog was shown.
+        @return boolean
+    */
+    public static boolean isComputerOpponentChosen () { return NewGameDialog.computerOpponentChosen; }
+    
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+/**
+    Class holding the weight of every pattern of the eight points around an empty point, used by playouts to prefer moves
+    that make sensible shapes over moves chosen at random.
+
+    A pattern is read as a 16 bit key, two bits for each surrounding point, a row at a time from the top left: empty,
+    black, white or off the board. Each game keeps the key of every point up to date as stones are placed and captured, so
+    looking up a point's weight is two array accesses. The table is built once, from a short list of shapes known to be good
+    in close fights, such as hane, cuts and blocks along the edge. Each shape is matched in every rotation and reflection,
+    and for either player, as a move good for one player is often the move the other must prevent.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class PatternTable
+{
+
+    //Values of a point in a pattern key.
+    public static final int EMPTY = 0, BLACK = 1, WHITE = 2, EDGE = 3;
+
+    //Shapes, as three rows around the empty center point. X and O are stones of either player, x is not X, o is not O,
+    //. is empty, # is off the board and ? is anything.
+    private static final String[] SHAPES = {
+
+        //Hane, enclosing, not cutting, magari and thin.
+        "XOX" + "..." + "???",
+        "XO." + "..." + "?.?",
+        "XO?" + "X.." + "x.?",
+        "XOO" + "..." + "?.?",
+
+        //Attaching diagonally to a stone.
+        ".O." + "X.." + "...",
+
+        //Cutting, unprotected or peeped, and pushing through.
+        "XO?" + "O.o" + "?o?",
+        "XO?" + "O.X" + "???",
+        "?X?" + "O.O" + "ooo",
+        "OX?" + "o.O" + "???",
+
+        //Along the edge: chasing, blocking a cut or a connection, descending and cutting.
+        "X.?" + "O.?" + "###",
+        "OX?" + "X.O" + "###",
+        "?X?" + "x.O" + "###",
+        "?XO" + "x.x" + "###",
+        "?OX" + "X.O" + "###"
+
+    };
+
+    //Weight of each shape. Cuts are decisive in most close fights, so they are tried more often.
+    private static final byte[] SHAPE_WEIGHTS = { 2, 2, 2, 2, 1, 3, 3, 3, 3, 1, 1, 1, 1, 1 };
+
+    //Column and row of each surrounding point, from the center point.
+    private static final int[] COLUMN_OFFSETS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+    private static final int[] ROW_OFFSETS = { -1, -1, -1, 0, 0, 1, 1, 1 };
+
+    private static final byte[] WEIGHTS = new byte[ 1 << 16 ];
+
+    static
+    {
+
+        for ( int shape = 0; shape < SHAPES.length; shape++ )
+        {
+
+            //Matching each shape in all eight rotations and reflections, with either player as X.
+            for ( int symmetry = 0; symmetry < 8; symmetry++ )
+            {
+
+                char[] cells = PatternTable.transform( SHAPES[ shape ], symmetry );
+
+                PatternTable.addMatchingKeys( cells, BLACK, WHITE, 0, 0, SHAPE_WEIGHTS[ shape ] );
+                PatternTable.addMatchingKeys( cells, WHITE, BLACK, 0, 0, SHAPE_WEIGHTS[ shape ] );
+
+            }
+
+        }
+
+    }
+
+    /**
+        Returns the weight of the given pattern, or zero if it matches no shape.
+        @param int Pattern key of an empty point.
+        @return int
+    */
+    public static int getWeight ( int key ) { return WEIGHTS[ key ]; }
+
+    /**
+        Returns the column of the given surrounding point, from the center point.
+        @param int Index of surrounding point, from 0 at the top left to 7 at the bottom right.
+        @return int
+    */
+    public static int getColumnOffset ( int index ) { return COLUMN_OFFSETS[ index ]; }
+
+    /**
+        Returns the row of the given surrounding point, from the center point.
+        @param int Index of surrounding point, from 0 at the top left to 7 at the bottom right.
+        @return int
+    */
+    public static int getRowOffset ( int index ) { return ROW_OFFSETS[ index ]; }
+
+    /**
+        Returns the eight surrounding cells of the given shape, rotated and reflected by the given symmetry.
+        @param String Shape, as nine characters a row at a time.
+        @param int Symmetry, from 0 to 7. Bit 0 swaps rows and columns, bit 1 reflects rows, and bit 2 reflects columns.
+        @return char[]
+    */
+    private static char[] transform ( String inShape, int symmetry )
+    {
+
+        char[] cells = new char[ 8 ];
+
+        for ( int i = 0; i < 8; i++ )
+        {
+
+            int column = COLUMN_OFFSETS[ i ];
+            int row = ROW_OFFSETS[ i ];
+
+            if ( ( symmetry & 1 ) != 0 )
+            {
+
+                int swapped = column;
+                column = row;
+                row = swapped;
+
+            }
+
+            if ( ( symmetry & 2 ) != 0 ) { row = -row; }
+            if ( ( symmetry & 4 ) != 0 ) { column = -column; }
+
+            cells[ i ] = inShape.charAt( ( row + 1 ) * 3 + column + 1 );
+
+        }
+
+        return cells;
+
+    }
+
+    /**
+        Gives every key matching the given cells at least the given weight, filling in the cells from the given index on.
+        @param char[] Cells of shape.
+        @param int Value of X's stones.
+        @param int Value of O's stones.
+        @param int Index of next cell to fill in.
+        @param int Key of the cells filled in so far.
+        @param byte Weight of shape.
+        @return void
+    */
+    private static void addMatchingKeys ( char[] cells, int own, int enemy, int index, int key, byte weight )
+    {
+
+        if ( index == 8 )
+        {
+
+            if ( WEIGHTS[ key ] < weight ) { WEIGHTS[ key ] = weight; }
+
+            return;
+
+        }
+
+        //Trying every value the cell allows.
+        for ( int value = EMPTY; value <= EDGE; value++ )
+        {
+
+            boolean allowed;
+
+            switch ( cells[ index ] )
+            {
+
+                case 'X': allowed = value == own; break;
+                case 'O': allowed = value == enemy; break;
+                case 'x': allowed = value == EMPTY || value == enemy; break;
+                case 'o': allowed = value == EMPTY || value == own; break;
+                case '.': allowed = value == EMPTY; break;
+                case '#': allowed = value == EDGE; break;
+                default: allowed = true;
+
+            }
+
+            if ( allowed ) { PatternTable.addMatchingKeys( cells, own, enemy, index + 1, key | ( value << ( 2 * index ) ), weight ); }
+
+        }
+
+    }
+
+}
\ No newline at end of file
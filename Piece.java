@@ -1,71 +1,109 @@
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.io.Serializable;
-import java.io.ObjectInputStream;
+import java.util.HashMap;
 import javax.imageio.ImageIO;
-import javax.swing.JComponent;
 
 /**
-    Class representing a single piece in play, of either color.
+    Class representing the image of a piece, of either color. A single <code>Piece</code> is used to paint every
+    stone of its color and transparency.
+    
+    Pieces are shared by the whole program. Each image file is only decoded once, and each piece is drawn once,
+    at its size, into an image compatible with the display.
     @author Dylan Foster
     @version 5/13/11
 */
-public class Piece extends JComponent implements Serializable
+public class Piece
 {
     
     //Constants for transparency of piece.
     public static final boolean IS_TRANSPARENT = true;
     public static final boolean IS_NOT_TRANSPARENT = false;
     
+    //Size of the piece image files, in pixels.
+    public static final int DEFAULT_SIZE = 29;
+    
+    private static final HashMap<Integer, Piece> pieces = new HashMap<Integer, Piece>();
+    private static final BufferedImage[] sourceImages = new BufferedImage[ 4 ];
+    
     private Player.Color color;
     private boolean translucent;
-    private transient BufferedImage pieceImage;
+    private BufferedImage pieceImage;
+    
+    /**
+        Returns the shared piece of the given color and transparency, at the size of the image files.
+        @param Player.Color Color of the piece.
+        @param boolean If piece is translucent or not.
+        @return Piece
+    */
+    public static Piece getPiece ( Player.Color inColor, boolean inTranslucent ) { return Piece.getPiece( inColor, inTranslucent, DEFAULT_SIZE ); }
     
     /**
-        Constructor. Creates a new piece with given color and transparency.
+        Returns the shared piece of the given color, transparency and size, creating it the first time it is needed.
         @param Player.Color Color of the piece.
         @param boolean If piece is translucent or not.
+        @param int Width and height of the piece, in pixels.
+        @return Piece
     */
-    public Piece ( Player.Color inColor, boolean inTranslucent )
+    public static synchronized Piece getPiece ( Player.Color inColor, boolean inTranslucent, int inSize )
     {
         
-        //Assigning parameters to instance variables.
-        this.color = inColor;
-        this.translucent = inTranslucent;
-        
-        File pieceFile;
-        
-        //Assigning file the proper image, based on the given parameters.
-        if ( inColor == Player.Color.BLACK && !inTranslucent ) { pieceFile = new File( "blackpiece.png" ); }
-        else if ( inColor == Player.Color.BLACK && inTranslucent ) { pieceFile = new File( "blackpiecetranslucent.png" ); }
-        else if ( inColor == Player.Color.WHITE && !inTranslucent ) { pieceFile = new File( "whitepiece.png" ); }
-        else { pieceFile = new File( "whitepiecetranslucent.png" ); }
+        Integer key = ( inSize << 2 ) | Piece.getImageIndex( inColor, inTranslucent );
+        Piece piece = Piece.pieces.get( key );
         
-        //Reading image from file, assigning to instance variable.
-        try { this.pieceImage = ImageIO.read( pieceFile ); }
-        catch ( IOException e )
+        if ( piece == null )
         {
             
-            //Could not find piece's image file in program's folder, unable to proceed.
-            System.out.println( "Could not find piece's image file." );
-            System.exit( 1 );
+            piece = new Piece( inColor, inTranslucent, inSize );
+            Piece.pieces.put( key, piece );
             
         }
+        
+        return piece;
+        
+    }
+    
+    /**
+        Constructor. Creates a new piece with given color, transparency and size.
+        @param Player.Color Color of the piece.
+        @param boolean If piece is translucent or not.
+        @param int Width and height of the piece, in pixels.
+    */
+    private Piece ( Player.Color inColor, boolean inTranslucent, int inSize )
+    {
+        
+        //Assigning parameters to instance variables.
+        this.color = inColor;
+        this.translucent = inTranslucent;
+        
+        //Creating an image the display can draw without converting it, and drawing the decoded image into it at the given size.
+        if ( GraphicsEnvironment.isHeadless() ) { this.pieceImage = new BufferedImage( inSize, inSize, BufferedImage.TYPE_INT_ARGB_PRE ); }
+        else { this.pieceImage = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleImage( inSize, inSize, Transparency.TRANSLUCENT ); }
+        
+        Graphics2D g = this.pieceImage.createGraphics();
+        g.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR );
+        g.drawImage( Piece.getSourceImage( inColor, inTranslucent ), 0, 0, inSize, inSize, null );
+        g.dispose();
 
     }
     
     /**
         Method to paint the image within a <code>Piece</code> object.
         @param Graphics Graphics to write to.
+        @param int X coordinate of top left of piece, in pixels.
+        @param int Y coordinate of top left of piece, in pixels.
         @return void
     */
-    public void paintComponent ( Graphics g )
+    public void paint ( Graphics g, int x, int y )
     {
         
-        //Draws image of Piece at top left of component.
-        g.drawImage( this.pieceImage, 0, 0, null );
+        //Draws image of Piece with its top left at the given coordinates.
+        g.drawImage( this.pieceImage, x, y, null );
 
     }
     
@@ -94,27 +132,34 @@ public class Piece extends JComponent implements Serializable
     }
     
     /**
-        Recreates this <code>Piece</code> object after being serialized.
-        @param ObjectInputStream Stream of Object to read.
-        @return void
+        Returns a string representation of this <code>Piece</code>.
+        @return String
+    */
+    public String toString () { return "Piece: Color=" + this.getColor() + ", translucent=" + this.isTranslucent(); }
+
+    /**
+        Returns the decoded image file of the given color and transparency, reading it the first time it is needed.
+        @param Player.Color Color of the piece.
+        @param boolean If piece is translucent or not.
+        @return BufferedImage
     */
-    private void readObject ( ObjectInputStream in ) throws IOException, ClassNotFoundException
+    private static BufferedImage getSourceImage ( Player.Color inColor, boolean inTranslucent )
     {
         
-        //Calling default readObject method.
-        in.defaultReadObject();
+        int index = Piece.getImageIndex( inColor, inTranslucent );
+        
+        if ( Piece.sourceImages[ index ] != null ) { return Piece.sourceImages[ index ]; }
         
-        //As BufferImage is not serializable, we must recreate it when loading object back into program.
         File pieceFile;
         
-        //Assigning file the proper image, based on instance variables.
-        if ( this.color == Player.Color.BLACK && !this.translucent ) { pieceFile = new File( "blackpiece.png" ); }
-        else if ( this.color == Player.Color.BLACK && this.translucent ) { pieceFile = new File( "blackpiecetranslucent.png" ); }
-        else if ( this.color == Player.Color.WHITE && !this.translucent ) { pieceFile = new File( "whitepiece.png" ); }
+        //Assigning file the proper image, based on the given parameters.
+        if ( inColor == Player.Color.BLACK && !inTranslucent ) { pieceFile = new File( "blackpiece.png" ); }
+        else if ( inColor == Player.Color.BLACK && inTranslucent ) { pieceFile = new File( "blackpiecetranslucent.png" ); }
+        else if ( inColor == Player.Color.WHITE && !inTranslucent ) { pieceFile = new File( "whitepiece.png" ); }
         else { pieceFile = new File( "whitepiecetranslucent.png" ); }
         
-        //Reading in image file, assigning to instance variable.
-        try { this.pieceImage = ImageIO.read( pieceFile ); }
+        //Reading image from file, storing it for every later piece.
+        try { Piece.sourceImages[ index ] = ImageIO.read( pieceFile ); }
         catch ( IOException e )
         {
             
@@ -124,12 +169,25 @@ public class Piece extends JComponent implements Serializable
             
         }
         
+        return Piece.sourceImages[ index ];
+        
     }
     
     /**
-        Returns a string representation of this <code>Piece</code>.
-        @return String
+        Returns the index of the given color and transparency, used to tell pieces apart in the caches.
+        @param Player.Color Color of the piece.
+        @param boolean If piece is translucent or not.
+        @return int
     */
-    public String toString () { return "Piece: x=" + this.getX() + ", y=" + this.getY() +  ", Color=" + this.getColor(); }
-
+    private static int getImageIndex ( Player.Color inColor, boolean inTranslucent )
+    {
+        
+        int index = ( inColor == Player.Color.BLACK ) ? 0 : 2;
+        
+        if ( inTranslucent ) { index++; }
+        
+        return index;
+        
+    }
+    
 }
\ No newline at end of file
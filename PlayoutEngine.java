@@ -0,0 +1,367 @@
+/**
+    Class that plays random games, called playouts, from a position to the end, and scores them. Playouts are the basis of
+    the computer opponent: the move that wins the most playouts is likely a good move.
+
+    Each playout copies the position into a scratch game owned by the engine, so the game being shown is never changed.
+    Moves are chosen at random from the empty points, skipping illegal moves and moves that fill one of the player's own eyes,
+    and a player with no such move passes. Before that, a group the last move put in atari runs away, if the
+    <code>LadderReader</code> finds it can escape, and then the points around the last move that match a shape in the
+    <code>PatternTable</code> are tried, chosen at random in proportion to their weights, so playouts answer close fights the
+    way a player would. Games end after two passes, and are scored by area scoring.
+
+    Nothing is created once the engine has played its first playout. An engine is used by one thread at a time; each thread
+    playing playouts should have its own engine.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class PlayoutEngine
+{
+
+    //Number of moves, as a multiple of the number of points, after which a playout is stopped and scored as it stands.
+    private static final int MOVE_LIMIT_FACTOR = 3;
+
+    private GameState scratch;
+    private int[] candidates;
+    private int[] patternMoves;
+    private int[] patternWeights;
+    private LadderReader ladderReader;
+    private long randomState;
+
+    /**
+        Constructor. Creates an engine for games on a board of the given size.
+        @param int Size of board.
+        @param long Seed of the engine's random moves.
+    */
+    public PlayoutEngine ( int inBoardSize, long inSeed )
+    {
+
+        this.scratch = new GameState( inBoardSize );
+        this.candidates = new int[ inBoardSize * inBoardSize ];
+        this.patternMoves = new int[ 8 ];
+        this.patternWeights = new int[ 8 ];
+        this.ladderReader = new LadderReader( inBoardSize );
+
+        //The random number generator needs a state that is not zero.
+        this.randomState = ( inSeed == 0 ) ? 0x9E3779B97F4A7C15L : inSeed;
+
+    }
+
+    /**
+        Plays a random game from the given position to its end.
+        @param GameState Position to start from. Left unchanged.
+        @return int Black's area score minus white's.
+    */
+    public int playout ( GameState inState )
+    {
+
+        this.scratch.copyFrom( inState );
+        this.finishGame( this.scratch );
+
+        return this.scratch.getBlackScore() - this.scratch.getWhiteScore();
+
+    }
+
+    /**
+        Returns the game the last playout was played in, as it was when the playout ended.
+        @return GameState
+    */
+    public GameState getScratchGame () { return this.scratch; }
+
+    /**
+        Plays random moves in the given game until it ends, then determines its area score.
+        @param GameState Game to finish. Changed by the playout.
+        @return void
+    */
+    public void finishGame ( GameState inState )
+    {
+
+        int moveLimit = inState.getMoveCount() + MOVE_LIMIT_FACTOR * inState.getPointCount();
+
+        while ( !inState.isGameOver() && inState.getMoveCount() < moveLimit ) { inState.playMove( this.chooseMove( inState ) ); }
+
+        inState.determineScore();
+
+    }
+
+    /**
+        Chooses a random move for the current player, which is legal and does not fill one of the player's own eyes. Escaping
+        from atari, and moves around the last move that match a shape, are preferred.
+        @param GameState Game to choose a move in.
+        @return int Point of move, or <code>GameState.NO_POINT</code> to pass.
+    */
+    public int chooseMove ( GameState inState )
+    {
+
+        int escapeMove = this.chooseEscapeMove( inState );
+
+        if ( escapeMove != GameState.NO_POINT ) { return escapeMove; }
+
+        int patternMove = this.choosePatternMove( inState );
+
+        if ( patternMove != GameState.NO_POINT ) { return patternMove; }
+
+        int count = 0;
+
+        //Gathering the empty points.
+        for ( int i = 0; i < inState.getWordCount(); i++ )
+        {
+
+            for ( long bits = inState.getEmptyPoints( i ); bits != 0; bits &= bits - 1 ) { this.candidates[ count++ ] = ( i << 6 ) + Long.numberOfTrailingZeros( bits ); }
+
+        }
+
+        //Trying empty points in random order, removing each one that cannot be played.
+        while ( count > 0 )
+        {
+
+            int index = this.nextInt( count );
+            int point = this.candidates[ index ];
+
+            if ( !PlayoutEngine.isOwnEye( inState, point, inState.getTurn() ) && !inState.isMoveIllegal( point ) ) { return point; }
+
+            this.candidates[ index ] = this.candidates[ --count ];
+
+        }
+
+        return GameState.NO_POINT;
+
+    }
+
+    /**
+        Chooses a move that lets a group of the current player, put in atari by the last move, escape. Groups a ladder would
+        capture are left to die.
+        @param GameState Game to choose a move in.
+        @return int Point of move, or <code>GameState.NO_POINT</code> if no group next to the last move can escape atari.
+    */
+    private int chooseEscapeMove ( GameState inState )
+    {
+
+        int lastMove = ( inState.getMoveCount() > 0 ) ? inState.getMove( inState.getMoveCount() - 1 ) : GameState.NO_POINT;
+
+        if ( lastMove == GameState.NO_POINT ) { return GameState.NO_POINT; }
+
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+        {
+
+            Group neighbour = inState.getGroupAt( inState.getNeighbour( lastMove, direction ) );
+
+            if ( neighbour == null || neighbour.getColor() != inState.getTurn() || neighbour.getLibertyCount() != 1 ) { continue; }
+
+            int point = this.ladderReader.findEscapeMove( inState, inState.getNeighbour( lastMove, direction ) );
+
+            if ( point != GameState.NO_POINT && !inState.isMoveIllegal( point ) ) { return point; }
+
+        }
+
+        return GameState.NO_POINT;
+
+    }
+
+    /**
+        Chooses a random move around the last move that matches a shape, in proportion to the weights of the shapes, which is
+        legal and does not fill one of the player's own eyes.
+        @param GameState Game to choose a move in.
+        @return int Point of move, or <code>GameState.NO_POINT</code> if no such move matches a shape.
+    */
+    private int choosePatternMove ( GameState inState )
+    {
+
+        int lastMove = ( inState.getMoveCount() > 0 ) ? inState.getMove( inState.getMoveCount() - 1 ) : GameState.NO_POINT;
+
+        if ( lastMove == GameState.NO_POINT ) { return GameState.NO_POINT; }
+
+        int count = 0;
+        int totalWeight = 0;
+
+        //Gathering the empty points around the last move that match a shape.
+        for ( int i = 0; i < 8; i++ )
+        {
+
+            int point = inState.getGeometry().getSurroundingPoint( lastMove, i );
+
+            if ( point == GameState.NO_POINT || inState.containsStone( point ) ) { continue; }
+
+            int weight = PatternTable.getWeight( inState.getPatternKey( point ) );
+
+            if ( weight > 0 )
+            {
+
+                this.patternMoves[ count ] = point;
+                this.patternWeights[ count++ ] = weight;
+                totalWeight += weight;
+
+            }
+
+        }
+
+        //Trying matching points in random order, weighted, removing each one that cannot be played.
+        while ( count > 0 )
+        {
+
+            int index = 0;
+
+            for ( int remaining = this.nextInt( totalWeight ); remaining >= this.patternWeights[ index ]; index++ ) { remaining -= this.patternWeights[ index ]; }
+
+            int point = this.patternMoves[ index ];
+
+            if ( !PlayoutEngine.isOwnEye( inState, point, inState.getTurn() ) && !inState.isMoveIllegal( point ) ) { return point; }
+
+            totalWeight -= this.patternWeights[ index ];
+            count--;
+            this.patternMoves[ index ] = this.patternMoves[ count ];
+            this.patternWeights[ index ] = this.patternWeights[ count ];
+
+        }
+
+        return GameState.NO_POINT;
+
+    }
+
+    /**
+        Returns if the given empty point is an eye of the given player: every point next to it holds one of the player's
+        stones, and the other player does not hold enough of the diagonal points to break it. Filling an eye only ever helps
+        the other player, so playouts never do.
+        @param GameState Game to check.
+        @param int Empty point.
+        @param Player.Color Color of player.
+        @return boolean
+    */
+    public static boolean isOwnEye ( GameState inState, int point, Player.Color inColor )
+    {
+
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+        {
+
+            int neighbour = inState.getNeighbour( point, direction );
+
+            if ( neighbour != GameState.NO_POINT && inState.getColorAt( neighbour ) != inColor ) { return false; }
+
+        }
+
+        int enemyDiagonals = 0;
+        int offBoardDiagonals = 0;
+
+        //Checking the diagonal points, each found as the point beside the point above or below.
+        for ( int vertical = GameState.ABOVE; vertical <= GameState.BELOW; vertical += 2 )
+        {
+
+            int row = inState.getNeighbour( point, vertical );
+
+            for ( int horizontal = GameState.RIGHT; horizontal <= GameState.LEFT; horizontal += 2 )
+            {
+
+                int diagonal = ( row == GameState.NO_POINT ) ? GameState.NO_POINT : inState.getNeighbour( row, horizontal );
+
+                if ( diagonal == GameState.NO_POINT ) { offBoardDiagonals++; }
+                else if ( inState.containsStone( diagonal ) && inState.getColorAt( diagonal ) != inColor ) { enemyDiagonals++; }
+
+            }
+
+        }
+
+        //An eye in the middle of the board can have one enemy diagonal, an eye on an edge or in a corner none.
+        return ( offBoardDiagonals == 0 ) ? enemyDiagonals < 2 : enemyDiagonals == 0;
+
+    }
+
+    /**
+        Measures how many playouts a single thread plays per second from the given position.
+        @param GameState Position to play from.
+        @param long Number of milliseconds to measure for.
+        @return double
+    */
+    public double measurePlayoutsPerSecond ( GameState inState, long inMilliseconds )
+    {
+
+        long start = System.nanoTime();
+        long end = start + inMilliseconds * 1000000L;
+        int playouts = 0;
+
+        while ( System.nanoTime() < end )
+        {
+
+            this.playout( inState );
+            playouts++;
+
+        }
+
+        return playouts / ( ( System.nanoTime() - start ) / 1e9 );
+
+    }
+
+    /**
+        Returns a random integer from zero up to, but not including, the given bound, using a xorshift generator.
+        @param int Bound.
+        @return int
+    */
+    private int nextInt ( int bound )
+    {
+
+        this.randomState ^= this.randomState << 13;
+        this.randomState ^= this.randomState >>> 7;
+        this.randomState ^= this.randomState << 17;
+
+        return ( int ) ( ( ( this.randomState >>> 33 ) * bound ) >>> 31 );
+
+    }
+
+    /**
+        Main method. Measures playouts per second per core, from an empty board of each size, on every core of the computer.
+        @param String[] Unused.
+        @return void
+    */
+    public static void main ( String[] args ) throws InterruptedException
+    {
+
+        final int cores = Runtime.getRuntime().availableProcessors();
+
+        for ( final int boardSize : new int[] { Board.SMALL_BOARD, Board.MEDIUM_BOARD, Board.LARGE_BOARD } )
+        {
+
+            final double[] rates = new double[ cores ];
+            Thread[] threads = new Thread[ cores ];
+
+            //Each core plays playouts with an engine of its own.
+            for ( int i = 0; i < cores; i++ )
+            {
+
+                final int index = i;
+
+                threads[ i ] = new Thread( new Runnable () {
+
+                    public void run ()
+                    {
+
+                        PlayoutEngine engine = new PlayoutEngine( boardSize, index + 1 );
+                        GameState emptyBoard = new GameState( boardSize );
+
+                        //Warming up before measuring.
+                        engine.measurePlayoutsPerSecond( emptyBoard, 1000 );
+                        rates[ index ] = engine.measurePlayoutsPerSecond( emptyBoard, 2000 );
+
+                    }
+
+                });
+
+                threads[ i ].start();
+
+            }
+
+            double total = 0;
+
+            for ( int i = 0; i < cores; i++ )
+            {
+
+                threads[ i ].join();
+                total += rates[ i ];
+
+            }
+
+            System.out.println( boardSize + " x " + boardSize + ": " + Math.round( total / cores ) + " playouts per second per core, " + cores + " cores." );
+
+        }
+
+    }
+
+}
\ No newline at end of file
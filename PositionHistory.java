@@ -0,0 +1,188 @@
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+    Class storing the hashes of every position that has occurred in a game, used to enforce positional superko.
+
+    Hashes are kept in an open addressing table of primitive longs, so adding and checking a hash takes constant time
+    and never creates an object.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class PositionHistory implements Serializable
+{
+
+    private static final int INITIAL_CAPACITY = 512;
+
+    private long[] hashes;
+    private int size;
+    private boolean containsZero;
+
+    /**
+        Constructor. Creates an empty history.
+    */
+    public PositionHistory ()
+    {
+
+        this.hashes = new long[ INITIAL_CAPACITY ];
+
+    }
+
+    /**
+        Returns if the given position hash is in this history.
+        @param long Hash of position.
+        @return boolean
+    */
+    public boolean contains ( long inHash )
+    {
+
+        //Zero marks an empty slot in the table, so it is tracked separately.
+        if ( inHash == 0 ) { return this.containsZero; }
+
+        int mask = this.hashes.length - 1;
+
+        //Probing slots until the hash, or an empty slot, is found.
+        for ( int i = PositionHistory.slotOf( inHash, mask ); this.hashes[ i ] != 0; i = ( i + 1 ) & mask )
+        {
+
+            if ( this.hashes[ i ] == inHash ) { return true; }
+
+        }
+
+        return false;
+
+    }
+
+    /**
+        Adds the given position hash to this history.
+        @param long Hash of position.
+        @return void
+    */
+    public void add ( long inHash )
+    {
+
+        if ( inHash == 0 )
+        {
+
+            this.containsZero = true;
+            return;
+
+        }
+
+        //Doubling the table when it becomes half full, keeping probe sequences short.
+        if ( ( this.size + 1 ) * 2 > this.hashes.length ) { this.grow(); }
+
+        if ( this.insert( this.hashes, inHash ) ) { this.size++; }
+
+    }
+
+    /**
+        Replaces every hash in this history with the hashes of the given history. The table is reused when it is large enough,
+        so copying into the same history again and again creates no objects.
+        @param PositionHistory History to copy.
+        @return void
+    */
+    public void copyFrom ( PositionHistory inHistory )
+    {
+
+        //A table of the same size holds every hash in the same slot.
+        if ( this.hashes.length == inHistory.hashes.length ) { System.arraycopy( inHistory.hashes, 0, this.hashes, 0, this.hashes.length ); }
+        else
+        {
+
+            if ( this.hashes.length < inHistory.hashes.length ) { this.hashes = new long[ inHistory.hashes.length ]; }
+            else { Arrays.fill( this.hashes, 0 ); }
+
+            //A larger table holds the hashes in different slots, so each is inserted again.
+            for ( long element : inHistory.hashes )
+            {
+
+                if ( element != 0 ) { this.insert( this.hashes, element ); }
+
+            }
+
+        }
+
+        this.size = inHistory.size;
+        this.containsZero = inHistory.containsZero;
+
+    }
+
+    /**
+        Removes every hash from this history.
+        @return void
+    */
+    public void clear ()
+    {
+
+        for ( int i = 0; i < this.hashes.length; i++ ) { this.hashes[ i ] = 0; }
+
+        this.size = 0;
+        this.containsZero = false;
+
+    }
+
+    /**
+        Returns the number of positions in this history.
+        @return int
+    */
+    public int size () { return this.containsZero ? this.size + 1 : this.size; }
+
+    /**
+        Moves every hash into a table twice the size.
+        @return void
+    */
+    private void grow ()
+    {
+
+        long[] newHashes = new long[ this.hashes.length * 2 ];
+
+        for ( long element : this.hashes )
+        {
+
+            if ( element != 0 ) { this.insert( newHashes, element ); }
+
+        }
+
+        this.hashes = newHashes;
+
+    }
+
+    /**
+        Inserts a non zero hash into the given table, if it is not already there.
+        @param long[] Table to insert into.
+        @param long Hash to insert.
+        @return boolean If the hash was inserted.
+    */
+    private boolean insert ( long[] inTable, long inHash )
+    {
+
+        int mask = inTable.length - 1;
+        int i = PositionHistory.slotOf( inHash, mask );
+
+        //Probing slots until the hash, or an empty slot, is found.
+        while ( inTable[ i ] != 0 )
+        {
+
+            if ( inTable[ i ] == inHash ) { return false; }
+
+            i = ( i + 1 ) & mask;
+
+        }
+
+        inTable[ i ] = inHash;
+
+        return true;
+
+    }
+
+    /**
+        Returns the first slot to probe for the given hash.
+        @param long Hash.
+        @param int Mask of table size.
+        @return int
+    */
+    private static int slotOf ( long inHash, int mask ) { return ( int ) ( inHash ^ ( inHash >>> 32 ) ) & mask; }
+
+}
\ No newline at end of file
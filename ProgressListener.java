@@ -0,0 +1,21 @@
+/**
+    Interface for objects told how far a long task, such as loading a game, has got.
+
+    Tasks that report progress can be cancelled by interrupting the thread running them. They stop at the next point they
+    report progress, by throwing an <code>InterruptedIOException</code>.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public interface ProgressListener
+{
+
+    /**
+        Called as the task makes progress.
+        @param long Amount of the task that has been done.
+        @param long Amount of the whole task.
+        @return void
+    */
+    public void progressMade ( long done, long total );
+
+}
\ No newline at end of file
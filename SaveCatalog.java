@@ -0,0 +1,292 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+    Class holding the header of every saved game in a folder, kept in a single index file in that folder.
+
+    Listing saved games only reads the index file, however many games there are. The index is updated whenever a game is saved.
+    If it is missing or cannot be read, it is rebuilt by reading the header of every save file in the folder.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class SaveCatalog
+{
+
+    //Name of index file.
+    public static final String INDEX_NAME = "Catalog.goindex";
+
+    //The characters "GoIx", which start every index file.
+    private static final int MAGIC = 0x476F4978;
+
+    //Version of the index format written by this class.
+    private static final int VERSION = 1;
+
+    private File directory;
+    private HashMap<String, SaveHeader> headers;
+
+    /**
+        Class pairing the name of a saved game with its header.
+    */
+    public static class Entry
+    {
+
+        private String name;
+        private SaveHeader header;
+
+        /**
+            Constructor. Creates an entry for the given save.
+            @param String Name of save.
+            @param SaveHeader Header of save.
+        */
+        private Entry ( String inName, SaveHeader inHeader )
+        {
+
+            this.name = inName;
+            this.header = inHeader;
+
+        }
+
+        /**
+            Returns the name of the save, which is the name of its file without the extension.
+            @return String
+        */
+        public String getName () { return this.name; }
+
+        /**
+            Returns the header of the save.
+            @return SaveHeader
+        */
+        public SaveHeader getHeader () { return this.header; }
+
+    }
+
+    /**
+        Constructor. Reads the index of the given folder, rebuilding it if it cannot be read.
+        @param File Folder of save files.
+    */
+    public SaveCatalog ( File inDirectory )
+    {
+
+        this.directory = inDirectory;
+        this.headers = new HashMap<String, SaveHeader>();
+
+        try { this.readIndex(); }
+        catch ( IOException e ) { this.rebuild(); }
+
+    }
+
+    /**
+        Returns an entry for every saved game in the catalog.
+        @return ArrayList<SaveCatalog.Entry>
+    */
+    public synchronized ArrayList<Entry> getEntries ()
+    {
+
+        ArrayList<Entry> entries = new ArrayList<Entry>( this.headers.size() );
+
+        for ( String element : this.headers.keySet() ) { entries.add( new Entry( element, this.headers.get( element ) ) ); }
+
+        return entries;
+
+    }
+
+    /**
+        Returns the save file of the given save.
+        @param String Name of save.
+        @return File
+    */
+    public File getFile ( String inName ) { return new File( this.directory, inName + SaveFile.EXTENSION ); }
+
+    /**
+        Reads the header of the given save's file into the catalog, then writes the index.
+        @param String Name of save.
+        @return void
+    */
+    public synchronized void update ( String inName ) throws IOException
+    {
+
+        this.headers.put( inName, SaveCatalog.readHeader( this.getFile( inName ) ) );
+        this.writeIndex();
+
+    }
+
+    /**
+        Removes the given save from the catalog, then writes the index.
+        @param String Name of save.
+        @return void
+    */
+    public synchronized void remove ( String inName ) throws IOException
+    {
+
+        if ( this.headers.remove( inName ) != null ) { this.writeIndex(); }
+
+    }
+
+    /**
+        Reads the header of every save file in the folder, replacing everything in the catalog, then writes the index.
+        @return void
+    */
+    public synchronized void rebuild ()
+    {
+
+        this.headers.clear();
+
+        File[] files = this.directory.listFiles();
+
+        if ( files == null ) { return; }
+
+        for ( File element : files )
+        {
+
+            String fileName = element.getName();
+
+            if ( !fileName.endsWith( SaveFile.EXTENSION ) ) { continue; }
+
+            //Files that cannot be read are left out of the catalog.
+            try { this.headers.put( fileName.substring( 0, fileName.length() - SaveFile.EXTENSION.length() ), SaveCatalog.readHeader( element ) ); }
+            catch ( IOException e ) { System.out.println( "Could not read saved game " + fileName + "." ); }
+
+        }
+
+        try { this.writeIndex(); }
+        catch ( IOException e ) { System.out.println( "Encountered a problem while writing the list of saved games." ); }
+
+    }
+
+    /**
+        Reads the header of a save file. Files written before headers described the game are read whole, once, to describe them.
+        @param File Save file.
+        @return SaveHeader
+    */
+    private static SaveHeader readHeader ( File inFile ) throws IOException
+    {
+
+        SaveHeader header = null;
+
+        try { header = SaveHeader.read( inFile ); }
+        catch ( IOException e )
+        {
+
+            //Files of the program's first versions have no header at all.
+
+        }
+
+        if ( header == null || header.getMoveCount() == -1 )
+        {
+
+            header = SaveFile.getHeader( SaveFile.read( inFile ) );
+            header.setModifiedTime( inFile.lastModified() );
+
+        }
+
+        return header;
+
+    }
+
+    /**
+        Reads the index file into the catalog.
+        @return void
+    */
+    private void readIndex () throws IOException
+    {
+
+        File indexFile = new File( this.directory, INDEX_NAME );
+        FileChannel channel = FileChannel.open( indexFile.toPath(), StandardOpenOption.READ );
+        ByteBuffer buffer;
+
+        try
+        {
+
+            buffer = ByteBuffer.allocate( ( int ) channel.size() );
+
+            while ( buffer.hasRemaining() && channel.read( buffer ) != -1 ) {}
+
+        }
+        finally { channel.close(); }
+
+        buffer.flip();
+
+        try
+        {
+
+            if ( buffer.getInt() != MAGIC || buffer.get() != VERSION ) { throw new IOException( "Not an index file." ); }
+
+            //Reading the name and header of each save.
+            for ( int count = buffer.getInt(); count > 0; count-- )
+            {
+
+                byte[] name = new byte[ buffer.getShort() & 0xFFFF ];
+                buffer.get( name );
+
+                ByteBuffer headerBytes = buffer.slice();
+                headerBytes.limit( SaveHeader.LENGTH );
+                buffer.position( buffer.position() + SaveHeader.LENGTH );
+
+                this.headers.put( new String( name, StandardCharsets.UTF_8 ), SaveHeader.get( headerBytes ) );
+
+            }
+
+        }
+        catch ( BufferUnderflowException e ) { throw new IOException( "Index file is incomplete." ); }
+        catch ( IllegalArgumentException e ) { throw new IOException( "Index file is incomplete." ); }
+
+    }
+
+    /**
+        Writes the catalog to the index file. The index is written to a temporary file first, which then replaces the old index.
+        @return void
+    */
+    private void writeIndex () throws IOException
+    {
+
+        ArrayList<String> names = new ArrayList<String>( this.headers.keySet() );
+        byte[][] encodedNames = new byte[ names.size() ][];
+        int length = 9;
+
+        //Encoding each name, to find the length of the index.
+        for ( int i = 0; i < names.size(); i++ )
+        {
+
+            encodedNames[ i ] = names.get( i ).getBytes( StandardCharsets.UTF_8 );
+            length += 2 + encodedNames[ i ].length + SaveHeader.LENGTH;
+
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate( length );
+        buffer.putInt( MAGIC );
+        buffer.put( ( byte ) VERSION );
+        buffer.putInt( names.size() );
+
+        //Writing the name and header of each save.
+        for ( int i = 0; i < names.size(); i++ )
+        {
+
+            buffer.putShort( ( short ) encodedNames[ i ].length );
+            buffer.put( encodedNames[ i ] );
+            this.headers.get( names.get( i ) ).put( buffer );
+
+        }
+
+        buffer.flip();
+
+        File temporaryFile = new File( this.directory, INDEX_NAME + ".tmp" );
+        FileChannel channel = FileChannel.open( temporaryFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING );
+
+        try { while ( buffer.hasRemaining() ) { channel.write( buffer ); } }
+        finally { channel.close(); }
+
+        Files.move( temporaryFile.toPath(), new File( this.directory, INDEX_NAME ).toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+
+    }
+
+}
\ No newline at end of file
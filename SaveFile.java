@@ -0,0 +1,446 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+    Class that reads and writes saved games.
+
+    A save file holds a <code>SaveHeader</code> describing the game, and the list of moves played, each written as a variable length
+    integer of one or two bytes. Games that did not start from an empty board also hold the position they started from, and
+    games that have ended hold any stones marked dead, which are marked again once the moves have been played.
+    Loading a game plays its moves again, so nothing but the moves needs to be stored. Moves played after a file was written may
+    be appended to its end by a <code>MoveJournal</code>, written the same way as the moves in the list.
+
+    Files written by earlier versions of the program, which serialized the whole board, are read by <code>LegacySaveReader</code>.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class SaveFile
+{
+
+    //Extension of save files.
+    public static final String EXTENSION = ".gosave";
+
+    //Flags describing the starting position of the game.
+    private static final int HAS_STARTING_POSITION = 1, STARTING_TURN_WHITE = 2, STARTING_TURN_PASSED = 4;
+
+    //Flag set when the game holds stones marked dead at its end.
+    private static final int HAS_DEAD_STONES = 8;
+
+    //Largest number of bytes a single move is written in.
+    public static final int MAX_MOVE_LENGTH = 2;
+
+    //Number of bytes written, and moves played when loading, between reports of progress.
+    private static final int BYTES_PER_REPORT = 65536, MOVES_PER_REPORT = 1024;
+
+    /**
+        Writes the given game to the given file, replacing anything already in the file.
+        @param GameState Game to save.
+        @param File File to write to.
+        @return void
+    */
+    public static void write ( GameState inState, File inFile ) throws IOException { SaveFile.write( SaveFile.encode( inState ), inFile, null ); }
+
+    /**
+        Writes the given bytes to the given file, replacing anything already in the file. The bytes are written to a temporary
+        file and forced to the disk first, and the temporary file then replaces the file in a single step, so the file is never
+        left part of the way written, even if writing is cancelled.
+        @param ByteBuffer Bytes to write, such as a game encoded by <code>encode</code>.
+        @param File File to write to.
+        @param ProgressListener Listener told how many bytes have been written, or <code>null</code>.
+        @return void
+    */
+    public static void write ( ByteBuffer inBytes, File inFile, ProgressListener listener ) throws IOException
+    {
+
+        //Writing from a copy, so the caller's buffer is left as it was.
+        ByteBuffer buffer = inBytes.duplicate();
+        File temporaryFile = new File( inFile.getPath() + ".tmp" );
+        FileChannel channel = FileChannel.open( temporaryFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING );
+        boolean written = false;
+
+        try
+        {
+
+            //Writing a piece of the bytes at a time, reporting progress after each.
+            while ( buffer.hasRemaining() )
+            {
+
+                ByteBuffer piece = buffer.duplicate();
+                piece.limit( Math.min( buffer.limit(), buffer.position() + BYTES_PER_REPORT ) );
+
+                while ( piece.hasRemaining() ) { channel.write( piece ); }
+
+                buffer.position( piece.position() );
+                SaveFile.reportProgress( listener, buffer.position(), buffer.limit() );
+
+            }
+
+            channel.force( true );
+            channel.close();
+
+            //Replacing the old file in a single step, so either the old or new file is always there whole.
+            Files.move( temporaryFile.toPath(), inFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+            written = true;
+
+        }
+        finally
+        {
+
+            //Removing what was written of a file that was not finished.
+            if ( !written )
+            {
+
+                channel.close();
+                temporaryFile.delete();
+
+            }
+
+        }
+
+    }
+
+    /**
+        Reads a game from the given file.
+        @param File File to read from.
+        @return GameState
+    */
+    public static GameState read ( File inFile ) throws IOException { return SaveFile.read( inFile, null ); }
+
+    /**
+        Reads a game from the given file, reporting progress as its moves are played.
+        @param File File to read from.
+        @param ProgressListener Listener told how many moves have been played, or <code>null</code>.
+        @return GameState
+    */
+    public static GameState read ( File inFile, ProgressListener listener ) throws IOException
+    {
+
+        FileChannel channel = FileChannel.open( inFile.toPath(), StandardOpenOption.READ );
+        ByteBuffer buffer;
+
+        //Reading the whole file into a buffer. Save files are only a few bytes long.
+        try
+        {
+
+            buffer = ByteBuffer.allocate( ( int ) channel.size() );
+
+            while ( buffer.hasRemaining() && channel.read( buffer ) != -1 ) {}
+
+        }
+        finally { channel.close(); }
+
+        buffer.flip();
+
+        return SaveFile.decode( buffer, listener );
+
+    }
+
+    /**
+        Writes the given game into a new buffer, ready to be read from.
+        @param GameState Game to save.
+        @return ByteBuffer
+    */
+    public static ByteBuffer encode ( GameState inState )
+    {
+
+        long[] startingBlackStones = inState.getStartingStones( Player.Color.BLACK );
+        long[] startingWhiteStones = inState.getStartingStones( Player.Color.WHITE );
+
+        //Every number written is less than 2^14, so none takes more than two bytes, and a move count takes at most five.
+        //Starting stones and dead stones each take at most two bytes a point, after a count of their own.
+        ByteBuffer buffer = ByteBuffer.allocate( SaveHeader.LENGTH + 6 + 4 * inState.getPointCount() + 5 + 2 * inState.getMoveCount() );
+        SaveHeader header = SaveFile.getHeader( inState );
+
+        //Writing header.
+        header.put( buffer );
+
+        //Writing the stones of the starting position, if the game did not start from an empty board.
+        if ( startingBlackStones != null )
+        {
+
+            SaveFile.putPoints( buffer, startingBlackStones, inState.getPointCount() );
+            SaveFile.putPoints( buffer, startingWhiteStones, inState.getPointCount() );
+
+        }
+
+        //Writing the stones marked dead, if any. They come before the moves, as moves may be appended to the end of the file.
+        if ( ( header.getFlags() & HAS_DEAD_STONES ) != 0 ) { SaveFile.putPoints( buffer, inState.getDeadStones(), inState.getPointCount() ); }
+
+        //Writing moves.
+        SaveFile.putVarint( buffer, inState.getMoveCount() );
+
+        for ( int i = 0; i < inState.getMoveCount(); i++ ) { SaveFile.putMove( buffer, inState.getMove( i ) ); }
+
+        buffer.flip();
+
+        return buffer;
+
+    }
+
+    /**
+        Reads a game from the given buffer.
+        @param ByteBuffer Buffer holding a save file.
+        @return GameState
+    */
+    public static GameState decode ( ByteBuffer inBuffer ) throws IOException { return SaveFile.decode( inBuffer, null ); }
+
+    /**
+        Reads a game from the given buffer, reporting progress as its moves are played.
+        @param ByteBuffer Buffer holding a save file.
+        @param ProgressListener Listener told how many moves have been played, or <code>null</code>.
+        @return GameState
+    */
+    public static GameState decode ( ByteBuffer inBuffer, ProgressListener listener ) throws IOException
+    {
+
+        //Files written by Java serialization start with its magic number.
+        if ( LegacySaveReader.isLegacySave( inBuffer ) ) { return LegacySaveReader.read( inBuffer ); }
+
+        try
+        {
+
+            //Reading header.
+            SaveHeader header = SaveHeader.get( inBuffer );
+            int flags = header.getFlags();
+
+            GameState state = new GameState( header.getBoardSize() );
+
+            //Setting up the starting position, if the game did not start from an empty board.
+            if ( ( flags & HAS_STARTING_POSITION ) != 0 )
+            {
+
+                long[] blackStones = SaveFile.getPoints( inBuffer, state );
+                long[] whiteStones = SaveFile.getPoints( inBuffer, state );
+                Player.Color turn = ( ( flags & STARTING_TURN_WHITE ) != 0 ) ? Player.Color.WHITE : Player.Color.BLACK;
+
+                state.setUpPosition( blackStones, whiteStones, turn, ( flags & STARTING_TURN_PASSED ) != 0 );
+
+            }
+
+            long[] deadStones = ( ( flags & HAS_DEAD_STONES ) != 0 ) ? SaveFile.getPoints( inBuffer, state ) : null;
+
+            int moveCount = SaveFile.getVarint( inBuffer );
+
+            //Playing every move again, checking that each one is legal.
+            for ( int i = 0; i < moveCount; i++ )
+            {
+
+                SaveFile.playMove( state, SaveFile.getVarint( inBuffer ) - 1 );
+
+                if ( ( i + 1 ) % MOVES_PER_REPORT == 0 ) { SaveFile.reportProgress( listener, i + 1, moveCount ); }
+
+            }
+
+            //Playing every move appended after the file was written. A move cut short by the program stopping is left out.
+            while ( SaveFile.hasWholeVarint( inBuffer ) ) { SaveFile.playMove( state, SaveFile.getVarint( inBuffer ) - 1 ); }
+
+            //Marking dead stones again, which can only be done once the game has ended.
+            if ( deadStones != null )
+            {
+
+                if ( !state.isGameOver() ) { throw new IOException( "Save file marks stones dead before the game has ended." ); }
+
+                state.markDeadStones( deadStones );
+
+            }
+
+            return state;
+
+        }
+        catch ( BufferUnderflowException e )
+        {
+
+            //File ended before all of the game was read.
+            throw new IOException( "Save file is incomplete." );
+
+        }
+
+    }
+
+    /**
+        Returns the header describing the given game as it is now, to be written at the start of its save file.
+        @param GameState Game to describe.
+        @return SaveHeader
+    */
+    public static SaveHeader getHeader ( GameState inState )
+    {
+
+        int flags = 0;
+
+        if ( inState.getStartingStones( Player.Color.BLACK ) != null ) { flags |= HAS_STARTING_POSITION; }
+        if ( inState.getStartingTurn() == Player.Color.WHITE ) { flags |= STARTING_TURN_WHITE; }
+        if ( inState.wasStartingTurnPassed() ) { flags |= STARTING_TURN_PASSED; }
+        if ( GameState.countBits( inState.getDeadStones() ) > 0 ) { flags |= HAS_DEAD_STONES; }
+
+        return new SaveHeader( inState, flags );
+
+    }
+
+    /**
+        Tells the given listener how far a task has got. Stops the task, if the thread running it has been interrupted.
+        @param ProgressListener Listener to tell, or <code>null</code>.
+        @param long Amount of the task that has been done.
+        @param long Amount of the whole task.
+        @return void
+    */
+    public static void reportProgress ( ProgressListener listener, long done, long total ) throws InterruptedIOException
+    {
+
+        if ( Thread.currentThread().isInterrupted() ) { throw new InterruptedIOException( "Task was cancelled." ); }
+
+        if ( listener != null ) { listener.progressMade( done, total ); }
+
+    }
+
+    /**
+        Writes a single move. A pass is written as zero, and a stone as one more than its point.
+        @param ByteBuffer Buffer to write to. Must have room for <code>MAX_MOVE_LENGTH</code> bytes.
+        @param int Point of move, or <code>GameState.NO_POINT</code> for a pass.
+        @return void
+    */
+    public static void putMove ( ByteBuffer buffer, int point ) { SaveFile.putVarint( buffer, point + 1 ); }
+
+    /**
+        Plays a move read from a save file, checking that it is legal.
+        @param GameState Game to play move in.
+        @param int Point of move, or <code>GameState.NO_POINT</code> for a pass.
+        @return void
+    */
+    private static void playMove ( GameState inState, int point ) throws IOException
+    {
+
+        if ( inState.isGameOver() || point < GameState.NO_POINT || point >= inState.getPointCount() || ( point != GameState.NO_POINT && inState.isMoveIllegal( point ) ) ) { throw new IOException( "Save file contains an illegal move." ); }
+
+        inState.playMove( point );
+
+    }
+
+    /**
+        Writes a bitboard as the number of points in it, followed by the distance from each point to the one before it.
+        @param ByteBuffer Buffer to write to.
+        @param long[] Bitboard to write.
+        @param int Number of points on the board.
+        @return void
+    */
+    private static void putPoints ( ByteBuffer buffer, long[] inPoints, int pointCount )
+    {
+
+        SaveFile.putVarint( buffer, GameState.countBits( inPoints ) );
+
+        int previous = -1;
+
+        for ( int point = 0; point < pointCount; point++ )
+        {
+
+            if ( !GameState.testBit( inPoints, point ) ) { continue; }
+
+            SaveFile.putVarint( buffer, point - previous );
+            previous = point;
+
+        }
+
+    }
+
+    /**
+        Reads a bitboard written by <code>putPoints</code>.
+        @param ByteBuffer Buffer to read from.
+        @param GameState Game the bitboard is for.
+        @return long[]
+    */
+    private static long[] getPoints ( ByteBuffer buffer, GameState inState ) throws IOException
+    {
+
+        long[] points = new long[ inState.getWordCount() ];
+        int count = SaveFile.getVarint( buffer );
+        int point = -1;
+
+        for ( int i = 0; i < count; i++ )
+        {
+
+            point += SaveFile.getVarint( buffer );
+
+            if ( point < 0 || point >= inState.getPointCount() ) { throw new IOException( "Save file contains a point that is not on the board." ); }
+
+            GameState.setBit( points, point );
+
+        }
+
+        return points;
+
+    }
+
+    /**
+        Writes a non negative integer seven bits at a time, lowest bits first. The high bit of each byte is set if more bytes follow.
+        @param ByteBuffer Buffer to write to.
+        @param int Integer to write.
+        @return void
+    */
+    private static void putVarint ( ByteBuffer buffer, int value )
+    {
+
+        while ( ( value & ~0x7F ) != 0 )
+        {
+
+            buffer.put( ( byte ) ( ( value & 0x7F ) | 0x80 ) );
+            value >>>= 7;
+
+        }
+
+        buffer.put( ( byte ) value );
+
+    }
+
+    /**
+        Returns if the rest of the buffer starts with a whole integer written by <code>putVarint</code>, without moving its position.
+        @param ByteBuffer Buffer to check.
+        @return boolean
+    */
+    private static boolean hasWholeVarint ( ByteBuffer buffer )
+    {
+
+        //The last byte of an integer is the first without its high bit set.
+        for ( int i = buffer.position(); i < buffer.limit(); i++ )
+        {
+
+            if ( buffer.get( i ) >= 0 ) { return true; }
+
+        }
+
+        return false;
+
+    }
+
+    /**
+        Reads an integer written by <code>putVarint</code>.
+        @param ByteBuffer Buffer to read from.
+        @return int
+    */
+    private static int getVarint ( ByteBuffer buffer ) throws IOException
+    {
+
+        int value = 0;
+
+        for ( int shift = 0; shift < 32; shift += 7 )
+        {
+
+            byte element = buffer.get();
+
+            value |= ( element & 0x7F ) << shift;
+
+            if ( element >= 0 ) { return value; }
+
+        }
+
+        throw new IOException( "Save file contains a number that is too large." );
+
+    }
+
+}
\ No newline at end of file
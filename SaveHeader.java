@@ -0,0 +1,237 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+    Class describing a saved game without reading its moves: the size of its board, how many moves have been played, who's turn
+    it is, when it was last saved, and its result.
+
+    Every save file starts with a header of a fixed length, so a game can be described by reading only the start of its file,
+    and the header can be rewritten in place whenever a move is added to the file.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class SaveHeader
+{
+
+    //Length of a header, in bytes.
+    public static final int LENGTH = 24;
+
+    //Version of the save format written by this program. Version 3 added the stones marked dead at the end of the game.
+    public static final int VERSION = 3;
+
+    //The characters "GoSv", which start every save file.
+    private static final int MAGIC = 0x476F5376;
+
+    //Length of the header written by the first version of the format, which held only the board size and flags.
+    private static final int FIRST_VERSION_LENGTH = 7;
+
+    //Values describing the state of the game.
+    private static final int BLACK_TO_MOVE = 0, WHITE_TO_MOVE = 1, GAME_OVER = 2;
+
+    private int version;
+    private int boardSize;
+    private int flags;
+    private int status;
+    private int moveCount;
+    private long modifiedTime;
+    private int blackScore;
+    private int whiteScore;
+
+    /**
+        Constructor. Creates the header of the given game, as it is now.
+        @param GameState Game to describe.
+        @param int Flags describing how the rest of the file is written.
+    */
+    public SaveHeader ( GameState inState, int inFlags )
+    {
+
+        this.version = VERSION;
+        this.boardSize = inState.getBoardSize();
+        this.flags = inFlags;
+        this.moveCount = inState.getMoveCount();
+        this.modifiedTime = System.currentTimeMillis();
+        this.blackScore = inState.getBlackScore();
+        this.whiteScore = inState.getWhiteScore();
+
+        if ( inState.isGameOver() ) { this.status = GAME_OVER; }
+        else if ( inState.getTurn() == Player.Color.WHITE ) { this.status = WHITE_TO_MOVE; }
+        else { this.status = BLACK_TO_MOVE; }
+
+    }
+
+    /**
+        Constructor. Creates an empty header, to be read from a file.
+    */
+    private SaveHeader () {}
+
+    /**
+        Reads a header from the start of the given buffer, leaving the buffer at the end of the header.
+        Headers of the first version of the format do not describe the game, and have a move count of -1.
+        @param ByteBuffer Buffer holding a save file.
+        @return SaveHeader
+    */
+    public static SaveHeader get ( ByteBuffer buffer ) throws IOException
+    {
+
+        SaveHeader header = new SaveHeader();
+
+        if ( buffer.remaining() < FIRST_VERSION_LENGTH || buffer.getInt() != MAGIC ) { throw new IOException( "Not a save file." ); }
+
+        header.version = buffer.get() & 0xFF;
+
+        if ( header.version > VERSION ) { throw new IOException( "Save file was written by a newer version of the program." ); }
+
+        header.boardSize = buffer.get() & 0xFF;
+        header.flags = buffer.get() & 0xFF;
+        header.moveCount = -1;
+
+        if ( header.boardSize < 1 || header.boardSize > BoardGeometry.MAX_BOARD_SIZE ) { throw new IOException( "Save file has an unsupported board size." ); }
+
+        //Reading the description of the game, which the first version did not write.
+        if ( header.version >= 2 )
+        {
+
+            if ( buffer.remaining() < LENGTH - FIRST_VERSION_LENGTH ) { throw new IOException( "Save file is incomplete." ); }
+
+            header.status = buffer.get();
+            header.moveCount = buffer.getInt();
+            header.modifiedTime = buffer.getLong();
+            header.blackScore = buffer.getShort();
+            header.whiteScore = buffer.getShort();
+
+        }
+
+        return header;
+
+    }
+
+    /**
+        Reads the header of the given save file, reading nothing past it.
+        @param File Save file.
+        @return SaveHeader
+    */
+    public static SaveHeader read ( File inFile ) throws IOException
+    {
+
+        ByteBuffer buffer = ByteBuffer.allocate( LENGTH );
+        FileChannel channel = FileChannel.open( inFile.toPath(), StandardOpenOption.READ );
+
+        try { while ( buffer.hasRemaining() && channel.read( buffer ) != -1 ) {} }
+        finally { channel.close(); }
+
+        buffer.flip();
+
+        return SaveHeader.get( buffer );
+
+    }
+
+    /**
+        Writes this header into the given buffer, at its position.
+        @param ByteBuffer Buffer to write to. Must have room for <code>LENGTH</code> bytes.
+        @return void
+    */
+    public void put ( ByteBuffer buffer )
+    {
+
+        buffer.putInt( MAGIC );
+        buffer.put( ( byte ) VERSION );
+        buffer.put( ( byte ) this.boardSize );
+        buffer.put( ( byte ) this.flags );
+        buffer.put( ( byte ) this.status );
+        buffer.putInt( this.moveCount );
+        buffer.putLong( this.modifiedTime );
+        buffer.putShort( ( short ) this.blackScore );
+        buffer.putShort( ( short ) this.whiteScore );
+
+    }
+
+    /**
+        Returns the version of the format the file was written in.
+        @return int
+    */
+    public int getVersion () { return this.version; }
+
+    /**
+        Returns the size of the game's board.
+        @return int
+    */
+    public int getBoardSize () { return this.boardSize; }
+
+    /**
+        Returns the flags describing how the rest of the file is written.
+        @return int
+    */
+    public int getFlags () { return this.flags; }
+
+    /**
+        Returns the number of moves played, including passes, or -1 if the header does not say.
+        @return int
+    */
+    public int getMoveCount () { return this.moveCount; }
+
+    /**
+        Returns the time the game was last saved, in milliseconds since 1970.
+        @return long
+    */
+    public long getModifiedTime () { return this.modifiedTime; }
+
+    /**
+        Sets the time the game was last saved, for headers of the first version, which did not hold it.
+        @param long Time in milliseconds since 1970.
+        @return void
+    */
+    public void setModifiedTime ( long inTime ) { this.modifiedTime = inTime; }
+
+    /**
+        Returns the color of the player who's turn it is, or <code>null</code> if the game is over.
+        @return Player.Color
+    */
+    public Player.Color getTurn ()
+    {
+
+        if ( this.status == BLACK_TO_MOVE ) { return Player.Color.BLACK; }
+        else if ( this.status == WHITE_TO_MOVE ) { return Player.Color.WHITE; }
+        else { return null; }
+
+    }
+
+    /**
+        Returns if the game has ended.
+        @return boolean
+    */
+    public boolean isGameOver () { return this.status == GAME_OVER; }
+
+    /**
+        Returns black's score, if the game has ended.
+        @return int
+    */
+    public int getBlackScore () { return this.blackScore; }
+
+    /**
+        Returns white's score, if the game has ended.
+        @return int
+    */
+    public int getWhiteScore () { return this.whiteScore; }
+
+    /**
+        Returns the result of the game, written the way Go players write it, such as "B+5.5", with white given komi. Games that
+        have not ended have no result.
+        @return String
+    */
+    public String getResult ()
+    {
+
+        double margin = this.blackScore - this.whiteScore - GameState.KOMI;
+
+        if ( !this.isGameOver() ) { return ""; }
+        else if ( margin > 0 ) { return "B+" + margin; }
+        else if ( margin < 0 ) { return "W+" + ( -margin ); }
+        else { return "Draw"; }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,623 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+    Class that reads and writes games in Smart Game Format ( SGF, file format 4 ), used by most other Go programs.
+
+    Files are read straight from memory mapped bytes, one game at a time. Properties are read without creating any strings,
+    and the moves of a game's main line are played in a <code>GameState</code> as soon as they are read, so a file holding
+    thousands of games can be scanned without the whole file, or any game, being held in memory. Variations are skipped.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class SgfFile
+{
+
+    //Extension of SGF files.
+    public static final String EXTENSION = ".sgf";
+
+    //Size of board when a game does not give one.
+    private static final int DEFAULT_BOARD_SIZE = 19;
+
+    //Property identifiers used, as their letters packed into an int.
+    private static final int B = 'B', W = 'W', AB = ( 'A' << 8 ) | 'B', AW = ( 'A' << 8 ) | 'W', AE = ( 'A' << 8 ) | 'E',
+        PL = ( 'P' << 8 ) | 'L', SZ = ( 'S' << 8 ) | 'Z';
+
+    private MappedByteBuffer bytes;
+    private int position;
+    private ProgressListener listener;
+
+    //Stones set up before the first move, on a board of the largest size, and the player to move first.
+    private long[] setupBlackStones;
+    private long[] setupWhiteStones;
+    private Player.Color setupTurn;
+    private int boardSize;
+
+    /**
+        Constructor. Maps the given file into memory, ready to read the games in it.
+        @param File SGF file to read.
+    */
+    public SgfFile ( File inFile ) throws IOException
+    {
+
+        FileChannel channel = FileChannel.open( inFile.toPath(), StandardOpenOption.READ );
+
+        //The mapping stays valid after the channel is closed.
+        try { this.bytes = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ); }
+        finally { channel.close(); }
+
+        int words = ( BoardGeometry.MAX_BOARD_SIZE * BoardGeometry.MAX_BOARD_SIZE + 63 ) / 64;
+        this.setupBlackStones = new long[ words ];
+        this.setupWhiteStones = new long[ words ];
+
+    }
+
+    /**
+        Reads the first game in the given SGF file.
+        @param File SGF file to read.
+        @return GameState
+    */
+    public static GameState read ( File inFile ) throws IOException
+    {
+
+        SgfFile file = new SgfFile( inFile );
+
+        if ( !file.hasNextGame() ) { throw new IOException( "SGF file does not contain a game." ); }
+
+        return file.nextGame();
+
+    }
+
+    /**
+        Sets the listener told how far through the file reading has got, after each game is counted, skipped or read.
+        @param ProgressListener Listener to tell, or <code>null</code>.
+        @return void
+    */
+    public void setProgressListener ( ProgressListener inListener ) { this.listener = inListener; }
+
+    /**
+        Returns if there is another game to read in the file.
+        @return boolean
+    */
+    public boolean hasNextGame ()
+    {
+
+        //Every game starts with an opening parenthesis. Anything before it is ignored.
+        while ( this.position < this.bytes.limit() && this.bytes.get( this.position ) != '(' ) { this.position++; }
+
+        return this.position < this.bytes.limit();
+
+    }
+
+    /**
+        Moves past the next game in the file, without playing any of its moves.
+        @return void
+    */
+    public void skipGame () throws IOException
+    {
+
+        if ( !this.hasNextGame() ) { throw new IOException( "SGF file does not contain another game." ); }
+
+        this.position++;
+        this.skipGameTree( 1 );
+
+        SaveFile.reportProgress( this.listener, this.position, this.bytes.limit() );
+
+    }
+
+    /**
+        Counts the games left in the file, without playing any of their moves, then returns to where the count started.
+        @return int
+    */
+    public int countGames () throws IOException
+    {
+
+        int start = this.position;
+        int count = 0;
+
+        while ( this.hasNextGame() )
+        {
+
+            this.position++;
+            this.skipGameTree( 1 );
+            count++;
+
+            SaveFile.reportProgress( this.listener, this.position, this.bytes.limit() );
+
+        }
+
+        this.position = start;
+
+        return count;
+
+    }
+
+    /**
+        Reads the next game in the file, playing the moves of its main line.
+        @return GameState
+    */
+    public GameState nextGame () throws IOException
+    {
+
+        if ( !this.hasNextGame() ) { throw new IOException( "SGF file does not contain another game." ); }
+
+        //Moving past the game's opening parenthesis. Variations are entered the same way, one deeper each time.
+        this.position++;
+        int depth = 1;
+
+        GameState state = null;
+        this.boardSize = DEFAULT_BOARD_SIZE;
+        this.setupTurn = null;
+
+        for ( int i = 0; i < this.setupBlackStones.length; i++ )
+        {
+
+            this.setupBlackStones[ i ] = 0;
+            this.setupWhiteStones[ i ] = 0;
+
+        }
+
+        //Reading nodes, going into the first variation wherever the game branches.
+        while ( true )
+        {
+
+            byte element = this.nextToken();
+
+            this.position++;
+
+            if ( element == ';' ) { state = this.readNode( state ); }
+            else if ( element == '(' ) { depth++; }
+            else if ( element == ')' ) { break; }
+            else { throw new IOException( "SGF file is not formatted correctly." ); }
+
+        }
+
+        //The main line ends with the first variation that ends. The other variations, and the rest of the game, are skipped.
+        this.skipGameTree( depth - 1 );
+
+        //Games without any moves may still set up a position.
+        if ( state == null ) { state = this.startGame(); }
+
+        SaveFile.reportProgress( this.listener, this.position, this.bytes.limit() );
+
+        return state;
+
+    }
+
+    /**
+        Writes the given game to the given file, as a single SGF game.
+        @param GameState Game to write.
+        @param File File to write to.
+        @return void
+    */
+    public static void write ( GameState inState, File inFile ) throws IOException { SaveFile.write( SgfFile.encode( inState ), inFile, null ); }
+
+    /**
+        Writes the given game into a new buffer as a single SGF game, ready to be written to a file.
+        @param GameState Game to write.
+        @return ByteBuffer
+    */
+    public static ByteBuffer encode ( GameState inState )
+    {
+
+        StringBuilder sgf = new StringBuilder( 64 + 6 * inState.getMoveCount() );
+
+        //Writing the root node, describing the game.
+        sgf.append( "(;FF[4]GM[1]CA[UTF-8]AP[Go:1]SZ[" ).append( inState.getBoardSize() ).append( "]KM[" ).append( GameState.KOMI ).append( ']' );
+
+        //Writing the stones of the starting position, if the game did not start from an empty board.
+        if ( inState.getStartingStones( Player.Color.BLACK ) != null )
+        {
+
+            SgfFile.appendPoints( sgf, "AB", inState.getStartingStones( Player.Color.BLACK ), inState );
+            SgfFile.appendPoints( sgf, "AW", inState.getStartingStones( Player.Color.WHITE ), inState );
+
+        }
+
+        if ( inState.getStartingTurn() == Player.Color.WHITE ) { sgf.append( "PL[W]" ); }
+
+        //Writing one node per move. Players take turns, so the color of each move follows from the player who went first.
+        Player.Color color = inState.getStartingTurn();
+
+        for ( int i = 0; i < inState.getMoveCount(); i++ )
+        {
+
+            sgf.append( ( color == Player.Color.BLACK ) ? ";B[" : ";W[" );
+            SgfFile.appendPoint( sgf, inState.getMove( i ), inState );
+            sgf.append( ']' );
+
+            color = ( color == Player.Color.BLACK ) ? Player.Color.WHITE : Player.Color.BLACK;
+
+        }
+
+        sgf.append( ")\n" );
+
+        return StandardCharsets.UTF_8.encode( sgf.toString() );
+
+    }
+
+    /**
+        Reads the properties of a node, after its semicolon, and applies them to the game.
+        @param GameState Game being read, or <code>null</code> if no move has been played yet.
+        @return GameState Game being read, created once the first move is read.
+    */
+    private GameState readNode ( GameState inState ) throws IOException
+    {
+
+        while ( true )
+        {
+
+            byte element = this.nextToken();
+
+            //The node ends at the start of the next node or variation, or the end of this one.
+            if ( element == ';' || element == '(' || element == ')' ) { return inState; }
+
+            int identifier = this.readIdentifier();
+
+            //Reading every value of the property.
+            while ( this.nextToken() == '[' )
+            {
+
+                int start = ++this.position;
+                int end = this.skipValue();
+
+                if ( identifier == B || identifier == W )
+                {
+
+                    //Moves start the game, setting up any stones placed before them.
+                    if ( inState == null ) { inState = this.startGame(); }
+
+                    this.playMove( inState, ( identifier == B ) ? Player.Color.BLACK : Player.Color.WHITE, start, end );
+
+                }
+                else if ( identifier == AB || identifier == AW || identifier == AE )
+                {
+
+                    if ( inState != null ) { throw new IOException( "SGF file sets up stones after the game has started, which is not supported." ); }
+
+                    this.setUpPoints( identifier, start, end );
+
+                }
+                else if ( identifier == PL ) { this.setupTurn = ( this.bytes.get( start ) == 'W' ) ? Player.Color.WHITE : Player.Color.BLACK; }
+                else if ( identifier == SZ )
+                {
+
+                    if ( inState != null ) { throw new IOException( "SGF file changes the size of the board after the game has started." ); }
+
+                    this.boardSize = this.readNumber( start, end );
+
+                    if ( this.boardSize < 1 || this.boardSize > BoardGeometry.MAX_BOARD_SIZE ) { throw new IOException( "SGF file has an unsupported board size." ); }
+
+                }
+
+            }
+
+        }
+
+    }
+
+    /**
+        Creates the game, with any stones that were set up before the first move. Properties may come in any order, so set up
+        stones are only checked against the size of the board here, once every property before the first move has been read.
+        @return GameState
+    */
+    private GameState startGame () throws IOException
+    {
+
+        GameState state = new GameState( this.boardSize );
+        long[] blackStones = new long[ state.getWordCount() ];
+        long[] whiteStones = new long[ state.getWordCount() ];
+        boolean hasSetup = false;
+
+        //Moving set up stones from the largest board to a board of the game's size.
+        for ( int row = 0; row < BoardGeometry.MAX_BOARD_SIZE; row++ )
+        {
+
+            for ( int column = 0; column < BoardGeometry.MAX_BOARD_SIZE; column++ )
+            {
+
+                int largePoint = row * BoardGeometry.MAX_BOARD_SIZE + column;
+                boolean black = GameState.testBit( this.setupBlackStones, largePoint );
+
+                if ( !black && !GameState.testBit( this.setupWhiteStones, largePoint ) ) { continue; }
+
+                if ( row >= this.boardSize || column >= this.boardSize ) { throw new IOException( "SGF file sets up a stone that is not on the board." ); }
+
+                GameState.setBit( black ? blackStones : whiteStones, state.getPoint( column, row ) );
+                hasSetup = true;
+
+            }
+
+        }
+
+        if ( hasSetup || this.setupTurn != null )
+        {
+
+            state.setUpPosition( blackStones, whiteStones, ( this.setupTurn == null ) ? Player.Color.BLACK : this.setupTurn, false );
+
+        }
+
+        return state;
+
+    }
+
+    /**
+        Plays a move read from the file, checking that it is legal.
+        A player moving twice in a row is read as the other player passing in between.
+        @param GameState Game to play move in.
+        @param Player.Color Color of player moving.
+        @param int Index of first byte of move's value.
+        @param int Index after last byte of move's value.
+        @return void
+    */
+    private void playMove ( GameState inState, Player.Color inColor, int start, int end ) throws IOException
+    {
+
+        if ( inState.getTurn() != inColor ) { this.playMove( inState, GameState.NO_POINT ); }
+
+        //An empty value is a pass. So is "tt" on boards of up to 19 points, for older programs.
+        int point = GameState.NO_POINT;
+
+        if ( end - start == 2 && !( this.bytes.get( start ) == 't' && this.bytes.get( start + 1 ) == 't' ) )
+        {
+
+            point = this.readPoint( start, inState.getBoardSize() );
+
+            if ( point == GameState.NO_POINT ) { throw new IOException( "SGF file contains a move that is not on the board." ); }
+
+            point = inState.getPoint( point % BoardGeometry.MAX_BOARD_SIZE, point / BoardGeometry.MAX_BOARD_SIZE );
+
+        }
+        else if ( end != start && end - start != 2 ) { throw new IOException( "SGF file contains a move that is not on the board." ); }
+
+        this.playMove( inState, point );
+
+    }
+
+    /**
+        Plays a single move, checking that it is legal.
+        @param GameState Game to play move in.
+        @param int Point of move, or <code>GameState.NO_POINT</code> for a pass.
+        @return void
+    */
+    private void playMove ( GameState inState, int point ) throws IOException
+    {
+
+        if ( inState.isGameOver() || ( point != GameState.NO_POINT && inState.isMoveIllegal( point ) ) ) { throw new IOException( "SGF file contains an illegal move." ); }
+
+        inState.playMove( point );
+
+    }
+
+    /**
+        Adds the points of a set up property's value to the stones set up before the first move.
+        Values may be a single point, or two points separated by a colon, marking every point in the rectangle between them.
+        The size of the board may not have been read yet, so points are only checked against the largest board.
+        @param int Identifier of property.
+        @param int Index of first byte of value.
+        @param int Index after last byte of value.
+        @return void
+    */
+    private void setUpPoints ( int identifier, int start, int end ) throws IOException
+    {
+
+        int first = this.readPoint( start, BoardGeometry.MAX_BOARD_SIZE );
+        int last = ( end - start == 5 && this.bytes.get( start + 2 ) == ':' ) ? this.readPoint( start + 3, BoardGeometry.MAX_BOARD_SIZE ) : first;
+
+        if ( first == GameState.NO_POINT || last == GameState.NO_POINT || ( end - start != 2 && end - start != 5 ) ) { throw new IOException( "SGF file sets up a stone that is not on the board." ); }
+
+        int size = BoardGeometry.MAX_BOARD_SIZE;
+
+        for ( int row = Math.min( first / size, last / size ); row <= Math.max( first / size, last / size ); row++ )
+        {
+
+            for ( int column = Math.min( first % size, last % size ); column <= Math.max( first % size, last % size ); column++ )
+            {
+
+                int point = row * size + column;
+
+                //Empty points remove any stone set up there.
+                GameState.clearBit( this.setupBlackStones, point );
+                GameState.clearBit( this.setupWhiteStones, point );
+
+                if ( identifier == AB ) { GameState.setBit( this.setupBlackStones, point ); }
+                else if ( identifier == AW ) { GameState.setBit( this.setupWhiteStones, point ); }
+
+            }
+
+        }
+
+    }
+
+    /**
+        Reads a point written as two letters, its column then its row, with 'a' being the first.
+        @param int Index of first letter.
+        @param int Size of board.
+        @return int Point on a board of the largest size, or <code>GameState.NO_POINT</code> if it is not on a board of the given size.
+    */
+    private int readPoint ( int start, int inBoardSize )
+    {
+
+        int column = this.bytes.get( start ) - 'a';
+        int row = this.bytes.get( start + 1 ) - 'a';
+
+        if ( column < 0 || column >= inBoardSize || row < 0 || row >= inBoardSize ) { return GameState.NO_POINT; }
+
+        return row * BoardGeometry.MAX_BOARD_SIZE + column;
+
+    }
+
+    /**
+        Reads a non negative number.
+        @param int Index of first digit.
+        @param int Index after last digit.
+        @return int
+    */
+    private int readNumber ( int start, int end ) throws IOException
+    {
+
+        int number = 0;
+
+        for ( int i = start; i < end; i++ )
+        {
+
+            byte digit = this.bytes.get( i );
+
+            if ( digit < '0' || digit > '9' || number > BoardGeometry.MAX_BOARD_SIZE ) { throw new IOException( "SGF file has an unsupported board size." ); }
+
+            number = number * 10 + ( digit - '0' );
+
+        }
+
+        return number;
+
+    }
+
+    /**
+        Reads a property identifier, keeping only its upper case letters, as older files may contain lower case letters.
+        @return int Letters of identifier, packed into an int.
+    */
+    private int readIdentifier () throws IOException
+    {
+
+        int identifier = 0;
+        int start = this.position;
+
+        while ( this.position < this.bytes.limit() )
+        {
+
+            byte element = this.bytes.get( this.position );
+
+            if ( element >= 'A' && element <= 'Z' ) { identifier = ( identifier << 8 ) | element; }
+            else if ( element < 'a' || element > 'z' ) { break; }
+
+            this.position++;
+
+        }
+
+        if ( this.position == start ) { throw new IOException( "SGF file is not formatted correctly." ); }
+
+        return identifier;
+
+    }
+
+    /**
+        Moves past a property value, after its opening bracket. Escaped characters, including closing brackets, are skipped.
+        @return int Index of the value's closing bracket.
+    */
+    private int skipValue () throws IOException
+    {
+
+        while ( this.position < this.bytes.limit() )
+        {
+
+            byte element = this.bytes.get( this.position++ );
+
+            if ( element == '\\' ) { this.position++; }
+            else if ( element == ']' ) { return this.position - 1; }
+
+        }
+
+        throw new IOException( "SGF file ends part of the way through a game." );
+
+    }
+
+    /**
+        Moves past the rest of a game tree, to the closing parenthesis that matches an opening parenthesis already moved past.
+        @param int Number of game trees and variations that are open.
+        @return void
+    */
+    private void skipGameTree ( int depth ) throws IOException
+    {
+
+        if ( depth == 0 ) { return; }
+
+        while ( this.position < this.bytes.limit() )
+        {
+
+            byte element = this.bytes.get( this.position++ );
+
+            if ( element == '[' ) { this.skipValue(); }
+            else if ( element == '(' ) { depth++; }
+            else if ( element == ')' && --depth == 0 ) { return; }
+
+        }
+
+        throw new IOException( "SGF file ends part of the way through a game." );
+
+    }
+
+    /**
+        Moves to the next byte that is not white space, and returns it without moving past it.
+        @return byte
+    */
+    private byte nextToken () throws IOException
+    {
+
+        while ( this.position < this.bytes.limit() )
+        {
+
+            byte element = this.bytes.get( this.position );
+
+            if ( element > ' ' ) { return element; }
+
+            this.position++;
+
+        }
+
+        throw new IOException( "SGF file ends part of the way through a game." );
+
+    }
+
+    /**
+        Writes a property holding every point in the given bitboard.
+        @param StringBuilder SGF being written.
+        @param String Identifier of property.
+        @param long[] Bitboard of points.
+        @param GameState Game the points are in.
+        @return void
+    */
+    private static void appendPoints ( StringBuilder sgf, String identifier, long[] inPoints, GameState inState )
+    {
+
+        if ( GameState.countBits( inPoints ) == 0 ) { return; }
+
+        sgf.append( identifier );
+
+        for ( int point = 0; point < inState.getPointCount(); point++ )
+        {
+
+            if ( !GameState.testBit( inPoints, point ) ) { continue; }
+
+            sgf.append( '[' );
+            SgfFile.appendPoint( sgf, point, inState );
+            sgf.append( ']' );
+
+        }
+
+    }
+
+    /**
+        Writes a point as two letters, its column then its row. Passes are written as nothing.
+        @param StringBuilder SGF being written.
+        @param int Point, or <code>GameState.NO_POINT</code> for a pass.
+        @param GameState Game the point is in.
+        @return void
+    */
+    private static void appendPoint ( StringBuilder sgf, int point, GameState inState )
+    {
+
+        if ( point == GameState.NO_POINT ) { return; }
+
+        sgf.append( ( char ) ( 'a' + inState.getGeometry().getColumn( point ) ) );
+        sgf.append( ( char ) ( 'a' + inState.getGeometry().getRow( point ) ) );
+
+    }
+
+}
\ No newline at end of file
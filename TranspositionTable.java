@@ -0,0 +1,151 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+    Class holding the results of playouts through each position, shared by every line of moves that reaches the position.
+    Go positions are reached by many orders of the same moves, and without a table each order would learn how good the
+    position is from nothing.
+
+    The table has a fixed number of entries, found by the position's key, a 64 bit Zobrist hash of its stones and who's turn
+    it is. Each key can only be kept in the entries of one bucket, and a new key takes the empty entry of its bucket, or else
+    the entry with the fewest visits. The visits and wins of an entry are packed into a single long, so they are updated
+    together by one atomic addition, and no thread ever waits for another. A thread replacing an entry at the same moment
+    another adds to it may mix a result into the wrong position; the table's counts are estimates, and such races are rare.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class TranspositionTable
+{
+
+    //Number of entries a key can be kept in.
+    private static final int BUCKET_SIZE = 4;
+
+    //Keys added to the hash of a position, for the player who's turn it is.
+    private static final long BLACK_TO_MOVE = 0x2545F4914F6CDD1DL, WHITE_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+    //Number of bits the visits of an entry are shifted by, above its wins.
+    private static final int VISITS_SHIFT = 32;
+
+    private AtomicLongArray keys;
+    private AtomicLongArray results;
+    private int bucketMask;
+
+    /**
+        Constructor. Creates an empty table.
+        @param int Number of entries, rounded down to a power of two.
+    */
+    public TranspositionTable ( int inCapacity )
+    {
+
+        int capacity = Integer.highestOneBit( Math.max( inCapacity, BUCKET_SIZE ) );
+
+        this.keys = new AtomicLongArray( capacity );
+        this.results = new AtomicLongArray( capacity );
+        this.bucketMask = capacity / BUCKET_SIZE - 1;
+
+    }
+
+    /**
+        Returns the key of the given position: the hash of its stones, and who's turn it is.
+        @param GameState Position.
+        @return long
+    */
+    public static long getKey ( GameState inState ) { return inState.getHash() ^ ( ( inState.getTurn() == Player.Color.BLACK ) ? BLACK_TO_MOVE : WHITE_TO_MOVE ); }
+
+    /**
+        Adds the result of a playout to the given position, taking an entry for it if it has none.
+        @param long Key of position.
+        @param int Result of playout, in half wins.
+        @return void
+    */
+    public void add ( long key, int halfWins )
+    {
+
+        int first = this.getBucket( key );
+        int replaced = first;
+
+        //Adding to the position's entry, if it has one, and otherwise finding the entry with the fewest visits.
+        for ( int entry = first; entry < first + BUCKET_SIZE; entry++ )
+        {
+
+            long entryKey = this.keys.get( entry );
+
+            if ( entryKey == key )
+            {
+
+                this.results.addAndGet( entry, ( 1L << VISITS_SHIFT ) + halfWins );
+                return;
+
+            }
+
+            if ( entryKey == 0 || ( this.keys.get( replaced ) != 0 && this.results.get( entry ) < this.results.get( replaced ) ) ) { replaced = entry; }
+
+        }
+
+        long replacedKey = this.keys.get( replaced );
+
+        //Taking the entry. If another thread took it first, the result is dropped.
+        if ( this.keys.compareAndSet( replaced, replacedKey, key ) ) { this.results.set( replaced, ( 1L << VISITS_SHIFT ) + halfWins ); }
+
+    }
+
+    /**
+        Returns the visits and wins of the given position, packed together, or zero if the table holds nothing for it.
+        @param long Key of position.
+        @return long Unpack with <code>getVisits</code> and <code>getWins</code>.
+    */
+    public long get ( long key )
+    {
+
+        int first = this.getBucket( key );
+
+        for ( int entry = first; entry < first + BUCKET_SIZE; entry++ )
+        {
+
+            if ( this.keys.get( entry ) == key ) { return this.results.get( entry ); }
+
+        }
+
+        return 0;
+
+    }
+
+    /**
+        Returns the number of playouts in packed results returned by <code>get</code>.
+        @param long Packed results.
+        @return int
+    */
+    public static int getVisits ( long inResults ) { return ( int ) ( inResults >>> VISITS_SHIFT ); }
+
+    /**
+        Returns the half wins in packed results returned by <code>get</code>.
+        @param long Packed results.
+        @return int
+    */
+    public static int getWins ( long inResults ) { return ( int ) inResults; }
+
+    /**
+        Empties the table. Must not be called while other threads are using it.
+        @return void
+    */
+    public void clear ()
+    {
+
+        for ( int i = 0; i < this.keys.length(); i++ )
+        {
+
+            this.keys.set( i, 0 );
+            this.results.set( i, 0 );
+
+        }
+
+    }
+
+    /**
+        Returns the index of the first entry of the bucket the given key is kept in.
+        @param long Key of position.
+        @return int
+    */
+    private int getBucket ( long key ) { return ( ( int ) ( key ^ ( key >>> 32 ) ) & this.bucketMask ) * BUCKET_SIZE; }
+
+}
\ No newline at end of file
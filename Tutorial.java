@@ -502,10 +502,11 @@ public class Tutorial extends JFrame
         tenthSection.add( image );
         
         //Creating and configuring text.
-        JTextArea text = new JTextArea( "Scoring in this version of Go is based on territory. Territory is a\nliberty of a group that is not" + 
-        " contested. A contested liberty is a\nliberty that is both a liberty of a black piece and a white piece.\n" + 
-        "The player with the most territory at the end of the game is the\nwinner. Above, black has 6 territory, and white has 9." + 
-        " The four\ncontested territories are marked with red Xs and do not count\ntowards either player's territory. White is the winner." );
+        JTextArea text = new JTextArea( "Scoring in this version of Go is based on territory. Each player scores\na point for every empty point" + 
+        " surrounded only by their pieces, and\nfor every piece they captured. Empty points that touch pieces of both\n" + 
+        "colors, like those marked with red Xs above, count for neither player.\nWhen the game ends, click groups that" + 
+        " cannot escape capture to mark\nthem dead. Dead pieces count as captured. White also gets " + GameState.KOMI + 
+        "\npoints of komi for moving second. The highest score wins." );
         text.setEditable( false );
         text.setBackground( null );
         text.setBounds( 50, 225, 400, 120 );
@@ -0,0 +1,454 @@
+import java.util.Arrays;
+
+/**
+    Class that finds the groups of a game that are unconditionally alive, and the points that are safe territory, using
+    Benson's algorithm.
+
+    A group is unconditionally alive if it can never be captured, even if its player passes every turn. For each color, the
+    board is split into regions: connected points that do not hold a stone of that color. A region is vital to a group if every
+    empty point in it is a liberty of the group. Groups with fewer than two vital regions are removed, then regions bordered by a
+    removed group are removed, until nothing more is removed. The groups that are left are unconditionally alive, and the
+    regions that are left, which are vital to one of them, are safe territory: the other player can never live in them.
+
+    Settled areas can be skipped by scoring, by suggesting dead stones, and by searches. Every array used is created once, and
+    the result is kept until the position changes, so asking again about the same position costs nothing.
+
+    @author Dylan Foster
+    @version 10/18/26
+*/
+public class UnconditionalLife
+{
+
+    //Most groups a region can be vital to. Each empty point touches at most four groups.
+    private static final int MAX_VITAL_GROUPS = 4;
+
+    private GameState state;
+    private int pointCount;
+    private long analyzedHash;
+    private int analyzedMoveCount;
+    private long[][] aliveStones;
+    private long[][] safePoints;
+
+    //Region each point belongs to, or -1 for stones of the color being analyzed.
+    private int[] regionOf;
+    private int[] fillStack;
+
+    //Groups bordering each region, stored one region after another.
+    private int[] borderStart;
+    private int[] borderEnd;
+    private int[] borderGroups;
+
+    //Groups each region is vital to, and if each region holds any empty points.
+    private int[] vitalGroups;
+    private int[] vitalCount;
+    private boolean[] hasEmptyPoint;
+
+    private boolean[] regionRemoved;
+    private boolean[] groupRemoved;
+    private int[] groupVitalRegions;
+    private int[] groupStamp;
+    private int stamp;
+
+    /**
+        Constructor. Creates a detector for the given game. Nothing is found until it is asked about.
+        @param GameState Game to analyze.
+    */
+    public UnconditionalLife ( GameState inState )
+    {
+
+        this.state = inState;
+        this.pointCount = inState.getPointCount();
+        this.analyzedMoveCount = -1;
+
+        this.aliveStones = new long[ 2 ][ inState.getWordCount() ];
+        this.safePoints = new long[ 2 ][ inState.getWordCount() ];
+
+        this.regionOf = new int[ this.pointCount ];
+        this.fillStack = new int[ this.pointCount ];
+        this.borderStart = new int[ this.pointCount ];
+        this.borderEnd = new int[ this.pointCount ];
+        this.borderGroups = new int[ 4 * this.pointCount ];
+        this.vitalGroups = new int[ MAX_VITAL_GROUPS * this.pointCount ];
+        this.vitalCount = new int[ this.pointCount ];
+        this.hasEmptyPoint = new boolean[ this.pointCount ];
+        this.regionRemoved = new boolean[ this.pointCount ];
+        this.groupRemoved = new boolean[ this.pointCount ];
+        this.groupVitalRegions = new int[ this.pointCount ];
+        this.groupStamp = new int[ this.pointCount ];
+
+    }
+
+    /**
+        Returns if the stone at the given point is unconditionally alive.
+        @param int Point to check.
+        @return boolean
+    */
+    public boolean isAlive ( int point )
+    {
+
+        this.analyze();
+
+        return GameState.testBit( this.aliveStones[ 0 ], point ) || GameState.testBit( this.aliveStones[ 1 ], point );
+
+    }
+
+    /**
+        Returns the color of the player the given point is safe territory of, or <code>null</code> if it is not safe territory.
+        @param int Point to check.
+        @return Player.Color
+    */
+    public Player.Color getSafeOwner ( int point )
+    {
+
+        this.analyze();
+
+        if ( GameState.testBit( this.safePoints[ 0 ], point ) ) { return Player.Color.BLACK; }
+        else if ( GameState.testBit( this.safePoints[ 1 ], point ) ) { return Player.Color.WHITE; }
+        else { return null; }
+
+    }
+
+    /**
+        Returns the bitboard of the given player's stones that are unconditionally alive. The bitboard is reused, and only valid
+        until the position changes.
+        @param Player.Color Color of player.
+        @return long[]
+    */
+    public long[] getAliveStones ( Player.Color inColor )
+    {
+
+        this.analyze();
+
+        return this.aliveStones[ UnconditionalLife.getIndex( inColor ) ];
+
+    }
+
+    /**
+        Returns the bitboard of points that are safe territory of the given player. Other player's stones on these points can
+        never live. The bitboard is reused, and only valid until the position changes.
+        @param Player.Color Color of player.
+        @return long[]
+    */
+    public long[] getSafePoints ( Player.Color inColor )
+    {
+
+        this.analyze();
+
+        return this.safePoints[ UnconditionalLife.getIndex( inColor ) ];
+
+    }
+
+    /**
+        Finds the unconditionally alive groups and safe territory of both players, unless the position has not changed since
+        they were last found.
+        @return void
+    */
+    public void analyze ()
+    {
+
+        if ( this.state.getHash() == this.analyzedHash && this.state.getMoveCount() == this.analyzedMoveCount ) { return; }
+
+        this.analyze( Player.Color.BLACK );
+        this.analyze( Player.Color.WHITE );
+
+        this.analyzedHash = this.state.getHash();
+        this.analyzedMoveCount = this.state.getMoveCount();
+
+    }
+
+    /**
+        Runs Benson's algorithm for one player.
+        @param Player.Color Color of player.
+        @return void
+    */
+    private void analyze ( Player.Color inColor )
+    {
+
+        long[] alive = this.aliveStones[ UnconditionalLife.getIndex( inColor ) ];
+        long[] safe = this.safePoints[ UnconditionalLife.getIndex( inColor ) ];
+        int regionCount = this.findRegions( inColor );
+
+        //Every group and region starts as a candidate.
+        for ( int point = 0; point < this.pointCount; point++ ) { this.groupRemoved[ point ] = false; }
+
+        for ( int region = 0; region < regionCount; region++ ) { this.regionRemoved[ region ] = false; }
+
+        boolean changed = true;
+
+        while ( changed )
+        {
+
+            changed = false;
+
+            //Counting the vital regions left for each group.
+            for ( int point = 0; point < this.pointCount; point++ ) { this.groupVitalRegions[ point ] = 0; }
+
+            for ( int region = 0; region < regionCount; region++ )
+            {
+
+                if ( this.regionRemoved[ region ] ) { continue; }
+
+                //A region without empty points is vital to every group around it.
+                if ( !this.hasEmptyPoint[ region ] )
+                {
+
+                    for ( int i = this.borderStart[ region ]; i < this.borderEnd[ region ]; i++ ) { this.groupVitalRegions[ this.borderGroups[ i ] ]++; }
+
+                }
+                else
+                {
+
+                    for ( int i = 0; i < this.vitalCount[ region ]; i++ ) { this.groupVitalRegions[ this.vitalGroups[ region * MAX_VITAL_GROUPS + i ] ]++; }
+
+                }
+
+            }
+
+            //Removing groups with fewer than two vital regions.
+            for ( int point = 0; point < this.pointCount; point++ )
+            {
+
+                if ( this.regionOf[ point ] != -1 || this.groupRemoved[ point ] || this.state.getGroupRoot( point ) != point ) { continue; }
+
+                if ( this.groupVitalRegions[ point ] < 2 )
+                {
+
+                    this.groupRemoved[ point ] = true;
+                    changed = true;
+
+                }
+
+            }
+
+            //Removing regions bordered by a removed group.
+            for ( int region = 0; region < regionCount; region++ )
+            {
+
+                if ( this.regionRemoved[ region ] ) { continue; }
+
+                for ( int i = this.borderStart[ region ]; i < this.borderEnd[ region ]; i++ )
+                {
+
+                    if ( this.groupRemoved[ this.borderGroups[ i ] ] )
+                    {
+
+                        this.regionRemoved[ region ] = true;
+                        changed = true;
+                        break;
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        //Gathering the stones of the groups left, and the points of the regions left that are vital to one of them.
+        for ( int i = 0; i < alive.length; i++ )
+        {
+
+            alive[ i ] = 0;
+            safe[ i ] = 0;
+
+        }
+
+        for ( int point = 0; point < this.pointCount; point++ )
+        {
+
+            int region = this.regionOf[ point ];
+
+            if ( region == -1 )
+            {
+
+                if ( !this.groupRemoved[ this.state.getGroupRoot( point ) ] ) { GameState.setBit( alive, point ); }
+
+            }
+            else if ( !this.regionRemoved[ region ] && this.borderEnd[ region ] > this.borderStart[ region ] && ( this.vitalCount[ region ] > 0 || !this.hasEmptyPoint[ region ] ) )
+            {
+
+                GameState.setBit( safe, point );
+
+            }
+
+        }
+
+    }
+
+    /**
+        Flood fills the regions of points without a stone of the given color, finding the groups bordering each region and the
+        groups each region is vital to.
+        @param Player.Color Color of player.
+        @return int Number of regions.
+    */
+    private int findRegions ( Player.Color inColor )
+    {
+
+        int regionCount = 0;
+        int borderCount = 0;
+
+        for ( int point = 0; point < this.pointCount; point++ ) { this.regionOf[ point ] = ( this.state.getColorAt( point ) == inColor ) ? -1 : -2; }
+
+        for ( int start = 0; start < this.pointCount; start++ )
+        {
+
+            if ( this.regionOf[ start ] != -2 ) { continue; }
+
+            int region = regionCount++;
+            int top = 0;
+
+            this.borderStart[ region ] = borderCount;
+            this.vitalCount[ region ] = 0;
+            this.hasEmptyPoint[ region ] = false;
+
+            //Each region marks the groups it has recorded with a stamp of its own, so marks never need to be cleared.
+            if ( ++this.stamp == 0 )
+            {
+
+                Arrays.fill( this.groupStamp, 0 );
+                this.stamp = 1;
+
+            }
+
+            this.regionOf[ start ] = region;
+            this.fillStack[ top++ ] = start;
+
+            while ( top > 0 )
+            {
+
+                int point = this.fillStack[ --top ];
+                boolean empty = !this.state.containsStone( point );
+                int[] adjacentGroups = null;
+                int adjacentCount = 0;
+
+                for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+                {
+
+                    int neighbour = this.state.getNeighbour( point, direction );
+
+                    if ( neighbour == GameState.NO_POINT ) { continue; }
+
+                    if ( this.regionOf[ neighbour ] == -2 )
+                    {
+
+                        this.regionOf[ neighbour ] = region;
+                        this.fillStack[ top++ ] = neighbour;
+
+                    }
+                    else if ( this.regionOf[ neighbour ] == -1 )
+                    {
+
+                        int root = this.state.getGroupRoot( neighbour );
+
+                        //Recording the group as bordering the region, once.
+                        if ( this.groupStamp[ root ] != this.stamp )
+                        {
+
+                            this.groupStamp[ root ] = this.stamp;
+                            this.borderGroups[ borderCount++ ] = root;
+
+                        }
+
+                    }
+
+                }
+
+                if ( !empty ) { continue; }
+
+                //The groups a region is vital to are the groups next to every one of its empty points.
+                if ( !this.hasEmptyPoint[ region ] )
+                {
+
+                    this.hasEmptyPoint[ region ] = true;
+
+                    for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+                    {
+
+                        int neighbour = this.state.getNeighbour( point, direction );
+
+                        if ( neighbour != GameState.NO_POINT && this.regionOf[ neighbour ] == -1 ) { this.addVitalGroup( region, this.state.getGroupRoot( neighbour ) ); }
+
+                    }
+
+                }
+                else
+                {
+
+                    //Keeping only the groups that are also next to this point.
+                    for ( int i = this.vitalCount[ region ] - 1; i >= 0; i-- )
+                    {
+
+                        int group = this.vitalGroups[ region * MAX_VITAL_GROUPS + i ];
+
+                        if ( !this.isNextToGroup( point, group ) )
+                        {
+
+                            this.vitalGroups[ region * MAX_VITAL_GROUPS + i ] = this.vitalGroups[ region * MAX_VITAL_GROUPS + this.vitalCount[ region ] - 1 ];
+                            this.vitalCount[ region ]--;
+
+                        }
+
+                    }
+
+                }
+
+            }
+
+            this.borderEnd[ region ] = borderCount;
+
+        }
+
+        return regionCount;
+
+    }
+
+    /**
+        Adds a group to the groups the given region is vital to, unless it is already one of them.
+        @param int Region.
+        @param int Root point of group.
+        @return void
+    */
+    private void addVitalGroup ( int region, int group )
+    {
+
+        for ( int i = 0; i < this.vitalCount[ region ]; i++ )
+        {
+
+            if ( this.vitalGroups[ region * MAX_VITAL_GROUPS + i ] == group ) { return; }
+
+        }
+
+        this.vitalGroups[ region * MAX_VITAL_GROUPS + this.vitalCount[ region ]++ ] = group;
+
+    }
+
+    /**
+        Returns if the given point is next to a stone of the given group.
+        @param int Point to check.
+        @param int Root point of group.
+        @return boolean
+    */
+    private boolean isNextToGroup ( int point, int group )
+    {
+
+        for ( int direction = GameState.ABOVE; direction <= GameState.LEFT; direction++ )
+        {
+
+            int neighbour = this.state.getNeighbour( point, direction );
+
+            if ( neighbour != GameState.NO_POINT && this.regionOf[ neighbour ] == -1 && this.state.getGroupRoot( neighbour ) == group ) { return true; }
+
+        }
+
+        return false;
+
+    }
+
+    /**
+        Returns the index of the arrays holding the given player's results.
+        @param Player.Color Color of player.
+        @return int
+    */
+    private static int getIndex ( Player.Color inColor ) { return ( inColor == Player.Color.BLACK ) ? 0 : 1; }
+
+}
\ No newline at end of file